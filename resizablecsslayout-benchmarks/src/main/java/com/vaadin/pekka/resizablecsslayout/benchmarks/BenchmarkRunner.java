@@ -0,0 +1,54 @@
+package com.vaadin.pekka.resizablecsslayout.benchmarks;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that the allocation rate and
+ * the allocations per operation are reported. Takes the same command line
+ * options as the JMH main class, e.g. a benchmark name pattern.
+ * <p>
+ * JMH sums event counters over the iterations, so the state diff length per
+ * resize is computed from the {@link ResizeRpcBenchmark.StateDiffCounters}
+ * totals and printed after the run.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class).build();
+        printStateDiffLengthPerResize(new Runner(options).run());
+    }
+
+    private static void printStateDiffLengthPerResize(
+            Collection<RunResult> results) {
+        for (RunResult result : results) {
+            Map<String, Result> counters = result.getSecondaryResults();
+            Result length = counters.get("stateDiffLength");
+            Result resizes = counters.get("resizes");
+            if (length == null || resizes == null
+                    || resizes.getScore() <= 0) {
+                continue;
+            }
+            BenchmarkParams params = result.getParams();
+            StringBuilder label = new StringBuilder(params.getBenchmark());
+            for (String key : params.getParamsKeys()) {
+                label.append(' ').append(key).append('=')
+                        .append(params.getParam(key));
+            }
+            System.out.println(String.format(
+                    "%s: %.1f state diff characters per resize", label,
+                    length.getScore() / resizes.getScore()));
+        }
+    }
+}
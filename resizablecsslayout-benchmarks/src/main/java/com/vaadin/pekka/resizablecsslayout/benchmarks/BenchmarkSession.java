@@ -0,0 +1,37 @@
+package com.vaadin.pekka.resizablecsslayout.benchmarks;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.VaadinSession;
+
+/**
+ * Session without a service for running the server side of the components
+ * outside of a servlet container. The session is locked by the thread that
+ * creates it for its whole lifetime, like during a request.
+ */
+@SuppressWarnings("serial")
+class BenchmarkSession extends VaadinSession {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int nextConnectorId;
+
+    BenchmarkSession() {
+        super(null);
+        lock.lock();
+    }
+
+    @Override
+    public Lock getLockInstance() {
+        return lock;
+    }
+
+    @Override
+    @Deprecated
+    public String createConnectorId(ClientConnector connector) {
+        // normally generated by the service
+        return String.valueOf(nextConnectorId++);
+    }
+}
@@ -0,0 +1,47 @@
+package com.vaadin.pekka.resizablecsslayout.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.UI;
+
+/**
+ * UI attached to a {@link BenchmarkSession}, with a method for writing the
+ * shared state changes like a response to the client would.
+ */
+@SuppressWarnings("serial")
+class BenchmarkUI extends UI {
+
+    BenchmarkUI(BenchmarkSession session) {
+        setSession(session);
+    }
+
+    @Override
+    protected void init(VaadinRequest request) {
+        // NOOP, content is set by the benchmarks
+    }
+
+    /**
+     * Encodes the state of the dirty connectors against the previously
+     * written state, clears the pending client RPC calls and marks the
+     * connectors clean.
+     *
+     * @return the total length of the encoded state diffs in characters
+     */
+    int writeResponse() {
+        ConnectorTracker tracker = getConnectorTracker();
+        List<ClientConnector> dirty = new ArrayList<ClientConnector>(
+                tracker.getDirtyVisibleConnectors());
+        int length = 0;
+        for (ClientConnector connector : dirty) {
+            connector.beforeClientResponse(false);
+            length += connector.encodeState().toJson().length();
+            connector.retrievePendingRpcCalls();
+        }
+        tracker.markAllConnectorsClean();
+        return length;
+    }
+}
@@ -0,0 +1,161 @@
+package com.vaadin.pekka.resizablecsslayout.benchmarks;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout;
+import com.vaadin.pekka.resizablecsslayout.ResizeRpcLimiter;
+import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutServerRpc;
+import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.server.ServerRpcManager;
+import com.vaadin.server.Sizeable.Unit;
+import com.vaadin.ui.AbsoluteLayout;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.Label;
+
+/**
+ * Benchmarks the server side of a resize, from the
+ * {@link ResizableCssLayoutServerRpc} calls to the state diff written to the
+ * client. The resized layout is inside an {@link AbsoluteLayout} with the
+ * given number of siblings, wrapped in the given number of
+ * {@link CustomComponent}s. Every resize is made from the top left corner, so
+ * that both the size and the position change.
+ * <p>
+ * The {@link StateDiffCounters} report the total length of the state diffs
+ * and the number of resizes, the {@link BenchmarkRunner} divides them for
+ * the length per resize and adds the GC profiler for the allocations per
+ * resize. The session has no service, so the resize metrics are disabled and
+ * their extra encoding of the accepted state is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResizeRpcBenchmark {
+
+    private static final int SMALL_SIZE = 200;
+    private static final int LARGE_SIZE = 220;
+
+    @Param({ "0", "6" })
+    public int nesting;
+
+    @Param({ "1", "200" })
+    public int siblings;
+
+    @Param({ "true", "false" })
+    public boolean autoAccept;
+
+    private BenchmarkUI ui;
+    private ResizableCssLayoutServerRpc rpc;
+    private int resizeId;
+    private int size = SMALL_SIZE;
+
+    /**
+     * Counts the state diff length and the number of resizes of an
+     * iteration. Both are summed over the iterations, divide them for the
+     * length per resize.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StateDiffCounters {
+
+        public long stateDiffLength;
+        public long resizes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            stateDiffLength = 0;
+            resizes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSession session = new BenchmarkSession();
+        ResizeRpcLimiter.get(session).setRateLimit(Integer.MAX_VALUE,
+                Integer.MAX_VALUE);
+        ui = new BenchmarkUI(session);
+
+        ResizableCssLayout layout = new ResizableCssLayout(new Label(
+                "Resized"));
+        layout.setWidth(size, Unit.PIXELS);
+        layout.setHeight(size, Unit.PIXELS);
+        layout.setAutoAcceptResize(autoAccept);
+        layout.setResizable(true);
+
+        Component positionHolder = layout;
+        for (int i = 0; i < nesting; i++) {
+            positionHolder = new CustomComponent(positionHolder);
+        }
+        AbsoluteLayout absoluteLayout = new AbsoluteLayout();
+        for (int i = 1; i < siblings; i++) {
+            absoluteLayout.addComponent(new Label("Sibling " + i),
+                    "top:" + i + "px;left:" + i + "px");
+        }
+        absoluteLayout.addComponent(positionHolder, "top:100px;left:100px");
+        ui.setContent(absoluteLayout);
+        ui.writeResponse();
+
+        rpc = getRpcImplementation(layout);
+    }
+
+    /**
+     * Returns the RPC implementation registered by the layout, so that the
+     * calls skip the reflective invocation of the request handling.
+     */
+    private static ResizableCssLayoutServerRpc getRpcImplementation(
+            ResizableCssLayout layout) {
+        ServerRpcManager<?> manager = layout.getRpcManager(
+                ResizableCssLayoutServerRpc.class.getName());
+        try {
+            Field implementation = ServerRpcManager.class
+                    .getDeclaredField("implementation");
+            implementation.setAccessible(true);
+            return (ResizableCssLayoutServerRpc) implementation.get(manager);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public int resizeEnd(StateDiffCounters counters) {
+        int resizeId = ++this.resizeId;
+        int newSize = size == SMALL_SIZE ? LARGE_SIZE : SMALL_SIZE;
+        rpc.onResizeStart(resizeId, ResizeLocation.TOP_LEFT, size, size);
+        rpc.onResizeEnd(resizeId, newSize, newSize, 100);
+        size = newSize;
+        return writeResponse(counters);
+    }
+
+    @Benchmark
+    public int resizeCancel(StateDiffCounters counters) {
+        int resizeId = ++this.resizeId;
+        rpc.onResizeStart(resizeId, ResizeLocation.TOP_LEFT, size, size);
+        rpc.onResizeCancel(resizeId);
+        return writeResponse(counters);
+    }
+
+    private int writeResponse(StateDiffCounters counters) {
+        int length = ui.writeResponse();
+        counters.stateDiffLength += length;
+        counters.resizes++;
+        return length;
+    }
+}
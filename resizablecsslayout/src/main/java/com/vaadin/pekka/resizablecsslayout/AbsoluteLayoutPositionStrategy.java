@@ -0,0 +1,90 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.server.Sizeable.Unit;
+import com.vaadin.ui.AbsoluteLayout;
+import com.vaadin.ui.AbsoluteLayout.ComponentPosition;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+
+/**
+ * Moves the sides of a resized component that were dragged inside an
+ * {@link com.vaadin.ui.AbsoluteLayout}. The new position is computed for all
+ * the sides first and set to the layout with a single
+ * {@link AbsoluteLayout#setPosition(Component, ComponentPosition)}. Only the
+ * sides that were set with pixels are adjusted.
+ */
+@SuppressWarnings("serial")
+public class AbsoluteLayoutPositionStrategy implements ResizePositionStrategy {
+
+    @Override
+    public void updatePosition(HasComponents container,
+            Component positionHolder, ResizeLocation resizeLocation,
+            int widthDelta, int heightDelta) {
+        AbsoluteLayout absoluteLayout = (AbsoluteLayout) container;
+        ComponentPosition position = absoluteLayout.getPosition(positionHolder);
+        boolean changed = false;
+        switch (resizeLocation) {
+        case TOP_LEFT:
+        case TOP:
+        case TOP_RIGHT:
+            Float top = offsetPixels(position.getTopValue(),
+                    position.getTopUnits(), heightDelta);
+            if (top != null) {
+                position.setTopValue(top);
+                changed = true;
+            }
+            break;
+        case BOTTOM_LEFT:
+        case BOTTOM:
+        case BOTTOM_RIGHT:
+            Float bottom = offsetPixels(position.getBottomValue(),
+                    position.getBottomUnits(), heightDelta);
+            if (bottom != null) {
+                position.setBottomValue(bottom);
+                changed = true;
+            }
+            break;
+        default:
+            break;
+        }
+        switch (resizeLocation) {
+        case TOP_LEFT:
+        case LEFT:
+        case BOTTOM_LEFT:
+            Float left = offsetPixels(position.getLeftValue(),
+                    position.getLeftUnits(), widthDelta);
+            if (left != null) {
+                position.setLeftValue(left);
+                changed = true;
+            }
+            break;
+        case TOP_RIGHT:
+        case RIGHT:
+        case BOTTOM_RIGHT:
+            Float right = offsetPixels(position.getRightValue(),
+                    position.getRightUnits(), widthDelta);
+            if (right != null) {
+                position.setRightValue(right);
+                changed = true;
+            }
+            break;
+        default:
+            break;
+        }
+        if (changed) {
+            absoluteLayout.setPosition(positionHolder, position);
+        }
+    }
+
+    /**
+     * Returns the given position value moved by delta, or <code>null</code>
+     * if the value is not set with pixels or does not change.
+     */
+    private static Float offsetPixels(Float value, Unit unit, int delta) {
+        if (value == null || !Unit.PIXELS.equals(unit) || delta == 0) {
+            return null;
+        }
+        return Math.max(0, value + delta);
+    }
+}
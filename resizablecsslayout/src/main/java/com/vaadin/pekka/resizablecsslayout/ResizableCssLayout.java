@@ -4,18 +4,41 @@ import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
-
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.vaadin.pekka.resizablecsslayout.ResizeRpcLimiter.Call;
+import com.vaadin.pekka.resizablecsslayout.client.FrameGapHistogram;
 import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutClientRpc;
 import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutServerRpc;
 import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutState;
+import com.vaadin.pekka.resizablecsslayout.client.ResizeConstraints;
 import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.server.JsonCodec;
+import com.vaadin.server.SerializableConsumer;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.Registration;
 import com.vaadin.ui.AbsoluteLayout;
 import com.vaadin.ui.AbsoluteLayout.ComponentPosition;
 import com.vaadin.ui.Component;
+import com.vaadin.ui.ConnectorTracker;
 import com.vaadin.ui.CustomComponent;
 import com.vaadin.ui.HasComponents;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
 import com.vaadin.util.ReflectTools;
 
+import elemental.json.JsonValue;
+
 /**
  * A CssLayout that is resizable from all the sides and corners when
  * {@link #setResizable(boolean)} is set to <code>true</code>.
@@ -23,52 +46,271 @@ import com.vaadin.util.ReflectTools;
 @SuppressWarnings("serial")
 public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
 
+    private static final int MAX_TRACES_AWAITING_APPLY = 16;
+
+    private static final ClassValue<Boolean> MOVE_HOOKS_OVERRIDDEN =
+            new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> type) {
+                    return overridesMoveHooks(type);
+                }
+            };
+
     private ResizeLocation latestResizeLocation;
 
     private boolean resizing;
 
     private boolean acceptResize;
 
-    private int pendingWidth;
-    private int pendingHeight;
-    private int initialWidth;
-    private int initialHeight;
+    private ResizeTransaction resizeTransaction;
+    private ResizeTransaction acceptedTransaction;
+    private final LinkedList<ResizeTransaction> pendingVerdicts = new LinkedList<ResizeTransaction>();
+
+    private List<ResizeVetoListener> resizeVetoListeners;
+    private long resizeVerdictTimeout = 5000;
+    private boolean resizeVerdictTimeoutAccepts;
+
+    private boolean measureAcceptState;
+
+    private boolean positionHolderResolved;
+    private int positionStrategiesVersion;
+    private HasComponents positionContainer;
+    private Component positionHolder;
+    private ResizePositionStrategy positionStrategy;
+
+    private final TypedListeners<ResizeStartEvent> resizeStartListeners = new TypedListeners<ResizeStartEvent>();
+    private final TypedListeners<ResizeEndEvent> resizeEndListeners = new TypedListeners<ResizeEndEvent>();
+    private final TypedListeners<ResizeEndEvent> asyncResizeEndListeners = new TypedListeners<ResizeEndEvent>();
+    private final TypedListeners<ResizeProgressEvent> resizeProgressListeners = new TypedListeners<ResizeProgressEvent>();
+    private final TypedListeners<ResizeCancelEvent> resizeCancelListeners = new TypedListeners<ResizeCancelEvent>();
+    private final TypedListeners<ResizeTrace> resizeTraceListeners = new TypedListeners<ResizeTrace>();
+    private final TypedListeners<FrameReportEvent> frameReportListeners = new TypedListeners<FrameReportEvent>();
+    private LinkedList<ResizeTrace> tracesAwaitingApply;
+    private Map<ResizeListener, Registration> resizeListenerRegistrations;
+    private transient Executor asyncListenerExecutor;
 
     private ResizableCssLayoutServerRpc rpc = new ResizableCssLayoutServerRpc() {
         @Override
-        public void onResizeStart(ResizeLocation resizeLocation, int height,
-                int width) {
+        public void onResizeStart(int resizeId, ResizeLocation resizeLocation,
+                int height, int width) {
+            if (!acquireRpc(Call.START, height, width)) {
+                return;
+            }
             acceptResize = true;
             latestResizeLocation = resizeLocation;
-            initialHeight = height;
-            initialWidth = width;
+            resizeTransaction = new ResizeTransaction(resizeId,
+                    resizeLocation, height, width);
             resizing = true;
-            fireResizeStart(resizeLocation, initialHeight, initialWidth);
+            ResizeMetrics metrics = getMetrics();
+            if (metrics != null) {
+                metrics.resizeStarted();
+            }
+            fireResizeStart(resizeLocation, height, width);
         }
 
         @Override
-        public void onResizeEnd(int height, int width) {
-            pendingHeight = height;
-            pendingWidth = width;
-            fireResizeEnd(height, width);
+        public void onResizeEnd(int resizeId, int height, int width,
+                int dragDuration) {
+            if (isCurrentResize(resizeId) && resizeTransaction.ended) {
+                // duplicate end, NOOP
+                return;
+            }
+            if (!acquireRpc(Call.END, height, width)) {
+                rejectDroppedResize(resizeId);
+                return;
+            }
+            if (!isCurrentResize(resizeId)) {
+                // start not received, e.g. after a server restart, still
+                // respond so that the client does not keep waiting
+                resizeTransaction = new ResizeTransaction(resizeId, null,
+                        height, width);
+                acceptResize = false;
+            }
+            resizeTransaction.ended = true;
+            if (resizeTransaction.trace != null) {
+                resizeTransaction.trace.endReceived();
+            }
+            // like the client, constrain only the dragged sides, unless the
+            // aspect ratio is kept, or the location is unknown
+            ResizableCssLayoutState state = getState(false);
+            ResizeLocation location = resizeTransaction.location;
+            boolean bothResized = location == null || state.keepAspectRatio;
+            int pendingHeight = height;
+            if (bothResized || location.isHeightResized()) {
+                pendingHeight = ResizeConstraints.constrain(height,
+                        state.minResizeHeight, state.maxResizeHeight,
+                        state.resizeStep);
+            }
+            int pendingWidth = width;
+            if (bothResized || location.isWidthResized()) {
+                pendingWidth = ResizeConstraints.constrain(width,
+                        state.minResizeWidth, state.maxResizeWidth,
+                        state.resizeStep);
+            }
+            if (pendingHeight != height || pendingWidth != width) {
+                // the client did not respect the constraints, the client
+                // side size can't be trusted
+                acceptResize = false;
+            }
+            resizeTransaction.pendingHeight = pendingHeight;
+            resizeTransaction.pendingWidth = pendingWidth;
+            long listenerStart = System.nanoTime();
+            fireResizeEnd(pendingHeight, pendingWidth);
+            if (resizeTransaction.trace != null) {
+                resizeTransaction.trace.listenersDone(System.nanoTime()
+                        - listenerStart);
+            }
+            ResizeMetrics metrics = getMetrics();
+            if (metrics != null) {
+                // measured by the client, the start may only arrive with
+                // the end
+                metrics.resizeEnded(dragDuration < 0 ? -1
+                        : TimeUnit.MILLISECONDS.toNanos(dragDuration),
+                        System.nanoTime() - listenerStart);
+            }
             resizing = false;
             respondResizeAcceptance();
         }
 
         @Override
-        public void onResizeCancel() {
-            resizing = false;
-            fireResizeCancel();
+        public void onResizeProgress(int resizeId, int height, int width) {
+            if (resizing && isCurrentResize(resizeId)
+                    && acquireRpc(Call.PROGRESS, height, width)) {
+                fireResizeProgress(height, width);
+            }
+        }
+
+        @Override
+        public void onResizeCancel(int resizeId) {
+            if (isCurrentResize(resizeId) && !resizeTransaction.ended
+                    && acquireRpc(Call.CANCEL, 0, 0)) {
+                resizing = false;
+                resizeTransaction.ended = true;
+                ResizeMetrics metrics = getMetrics();
+                if (metrics != null) {
+                    metrics.resizeCanceled();
+                }
+                fireResizeCancel();
+            }
+        }
+
+        @Override
+        public void onResizeTrace(int resizeId, int firstMoveDelay,
+                int dragDuration, int moveEvents, int frames) {
+            if (getState(false).resizeTracing && isCurrentResize(resizeId)
+                    && !resizeTransaction.ended
+                    && resizeTransaction.trace == null
+                    && acquireRpc(Call.TRACE, 0, 0)) {
+                resizeTransaction.trace = new ResizeTrace(getConnectorId(),
+                        resizeId, firstMoveDelay, dragDuration, moveEvents,
+                        frames);
+            }
+        }
+
+        @Override
+        public void onResizeApplied(int resizeId, int applyDelay) {
+            if (tracesAwaitingApply == null) {
+                return;
+            }
+            for (Iterator<ResizeTrace> i = tracesAwaitingApply.iterator(); i
+                    .hasNext();) {
+                ResizeTrace trace = i.next();
+                if (trace.getResizeId() == resizeId) {
+                    i.remove();
+                    trace.applied(applyDelay);
+                    resizeTraceListeners.fire(trace);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onFrameReport(int[] gapCounts, int droppedFrames,
+                int maxGap) {
+            if (getState(false).frameSampling
+                    && isValidFrameReport(gapCounts, droppedFrames, maxGap)
+                    && acquireRpc(Call.FRAME_REPORT, 0, 0)) {
+                fireResizeEvent(new FrameReportEvent(ResizableCssLayout.this,
+                        gapCounts, droppedFrames, maxGap),
+                        frameReportListeners);
+            }
         }
 
     };
 
+    private static boolean isValidFrameReport(int[] gapCounts,
+            int droppedFrames, int maxGap) {
+        if (gapCounts == null
+                || gapCounts.length != FrameGapHistogram.BUCKETS
+                || droppedFrames < 0 || maxGap < 0) {
+            return false;
+        }
+        for (int count : gapCounts) {
+            if (count < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCurrentResize(int resizeId) {
+        return resizeTransaction != null && resizeTransaction.id == resizeId;
+    }
+
+    /**
+     * Checks the resize call against the {@link ResizeRpcLimiter} of the
+     * session.
+     */
+    private boolean acquireRpc(Call call, int height, int width) {
+        VaadinSession session = getSession();
+        if (session == null || ResizeRpcLimiter.get(session)
+                .tryAcquire(call, height, width)) {
+            return true;
+        }
+        ResizeMetrics metrics = ResizeMetrics.get(session.getService());
+        if (metrics != null) {
+            metrics.callDropped();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the {@link ResizeMetrics} of the servlet, or <code>null</code>
+     * if they are not enabled or the component is not attached.
+     */
+    private ResizeMetrics getMetrics() {
+        VaadinSession session = getSession();
+        return session == null ? null : ResizeMetrics.get(session
+                .getService());
+    }
+
+    /**
+     * Ends the resize of a dropped end call without processing it. A reject
+     * is still responded when not in auto accept mode, so that the client
+     * does not keep waiting for the verdict. In auto accept mode the client
+     * has already applied the size, so it is told to restore the size of the
+     * server. Marking the component dirty would not do, as the size has not
+     * changed on the server and thus no state is sent.
+     */
+    private void rejectDroppedResize(int resizeId) {
+        if (!isCurrentResize(resizeId)) {
+            resizeTransaction = new ResizeTransaction(resizeId, null, 0, 0);
+        }
+        resizeTransaction.ended = true;
+        resizing = false;
+        if (!getState(false).autoAcceptResize) {
+            pendingVerdicts.addLast(resizeTransaction);
+            decideResize(resizeTransaction, false);
+        } else {
+            getRpcProxy(ResizableCssLayoutClientRpc.class).restoreSize();
+        }
+    }
+
     /**
      * Constructs an empty ResizableCssLayout.
      */
     public ResizableCssLayout() {
         registerRpc(rpc);
-        setAllLocationsResizable();
     }
 
     /**
@@ -97,75 +339,350 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
     }
 
     /**
-     * Responds the acceptance to the resize if not in auto accept mode.
+     * Responds the acceptance to the resize if not in auto accept mode. When
+     * there are {@link ResizeVetoListener}s and the resize was not canceled
+     * already, the response is sent once all their verdicts have completed,
+     * or when the verdict timeout expires.
      */
     protected void respondResizeAcceptance() {
+        ResizeTransaction transaction = resizeTransaction;
         if (!getState(false).autoAcceptResize) {
-            getRpcProxy(ResizableCssLayoutClientRpc.class).acceptResize(
-                    acceptResize);
-            if (acceptResize) {
-                internalAccept();
+            pendingVerdicts.addLast(transaction);
+            if (acceptResize && resizeVetoListeners != null
+                    && !resizeVetoListeners.isEmpty() && getUI() != null) {
+                requestVerdicts(transaction);
+            } else {
+                decideResize(transaction, acceptResize);
             }
         } else {
-            internalAccept();
+            traceVerdict(transaction, true, true);
+            applyAcceptedResize(transaction);
+        }
+    }
+
+    private void requestVerdicts(ResizeTransaction transaction) {
+        ResizeEndEvent event = new ResizeEndEvent(this,
+                transaction.pendingHeight, transaction.pendingWidth,
+                transaction.trace);
+        CompletableFuture<Boolean> combined = CompletableFuture
+                .completedFuture(Boolean.TRUE);
+        for (ResizeVetoListener listener : new ArrayList<ResizeVetoListener>(
+                resizeVetoListeners)) {
+            CompletionStage<Boolean> verdict = listener.resizeVerdict(event);
+            if (verdict != null) {
+                combined = combined.thenCombine(verdict,
+                        (a, b) -> a && Boolean.TRUE.equals(b));
+            }
+        }
+        CompletableFuture<Boolean> deadline = new CompletableFuture<Boolean>();
+        combined.whenComplete((verdict, error) -> deadline
+                .complete(error == null && verdict));
+        if (deadline.isDone()) {
+            decideResize(transaction, deadline.join());
+            return;
+        }
+        boolean timeoutVerdict = resizeVerdictTimeoutAccepts;
+        ResizeListenerExecutors.shutdownWith(getSession());
+        ScheduledFuture<?> timeout = ResizeListenerExecutors.getScheduler()
+                .schedule(() -> deadline.complete(timeoutVerdict),
+                        resizeVerdictTimeout, TimeUnit.MILLISECONDS);
+        UI ui = getUI();
+        deadline.thenAccept(verdict -> {
+            timeout.cancel(false);
+            try {
+                ui.access(() -> decideResize(transaction, verdict));
+            } catch (UIDetachedException e) {
+                // nobody to respond to, NOOP
+            }
+        });
+    }
+
+    /**
+     * Records the verdict for the resize and responds the verdicts that are
+     * ready to the client, in the order the resizes ended. Late and duplicate
+     * verdicts are ignored, so exactly one verdict is sent per resize.
+     */
+    private void decideResize(ResizeTransaction transaction, boolean accept) {
+        if (transaction.verdict != null) {
+            return;
+        }
+        transaction.verdict = accept;
+        while (!pendingVerdicts.isEmpty()
+                && pendingVerdicts.getFirst().verdict != null) {
+            ResizeTransaction next = pendingVerdicts.removeFirst();
+            getRpcProxy(ResizableCssLayoutClientRpc.class).acceptResize(
+                    next.id, next.verdict);
+            traceVerdict(next, next.verdict, false);
+            if (next.verdict) {
+                applyAcceptedResize(next);
+            } else {
+                ResizeMetrics metrics = getMetrics();
+                if (metrics != null) {
+                    metrics.resizeRejected();
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the accepted resize and only then hands it to the asynchronous
+     * resize end listeners, so they never see a canceled or vetoed resize.
+     */
+    private void applyAcceptedResize(ResizeTransaction transaction) {
+        acceptedTransaction = transaction;
+        internalAccept(transaction.location, transaction.initialHeight,
+                transaction.initialWidth, transaction.pendingHeight,
+                transaction.pendingWidth);
+        if (!asyncResizeEndListeners.isEmpty()) {
+            asyncResizeEndListeners.fire(new ResizeEndEvent(this,
+                    transaction.pendingHeight, transaction.pendingWidth,
+                    transaction.trace));
+        }
+    }
+
+    /**
+     * Records the verdict to the trace of the resize, if any, and keeps the
+     * trace until the client reports the verdict applied. At most
+     * {@value #MAX_TRACES_AWAITING_APPLY} traces are kept, older ones are
+     * passed to the trace listeners incomplete.
+     */
+    private void traceVerdict(ResizeTransaction transaction, boolean accept,
+            boolean autoAccept) {
+        ResizeTrace trace = transaction.trace;
+        if (trace == null) {
+            return;
+        }
+        trace.verdictSent(accept, autoAccept);
+        if (tracesAwaitingApply == null) {
+            tracesAwaitingApply = new LinkedList<ResizeTrace>();
+        }
+        tracesAwaitingApply.addLast(trace);
+        if (tracesAwaitingApply.size() > MAX_TRACES_AWAITING_APPLY) {
+            resizeTraceListeners.fire(tracesAwaitingApply.removeFirst());
         }
     }
 
     /**
-     * Updates the new resized size of the component. Moves the component if it
-     * is inside a {@link com.vaadin.ui.AbsoluteLayout} and the coordinates need
-     * to be updated.
+     * Updates the size of the latest accepted resize again, or of the
+     * ongoing resize if none has been accepted yet. Does nothing when there
+     * has been no resize.
+     *
+     * @deprecated use
+     *             {@link #internalAccept(ResizeLocation, int, int, int, int)}
+     *             with the sizes of the resize instead
      */
+    @Deprecated
     protected void internalAccept() {
+        ResizeTransaction transaction = acceptedTransaction != null
+                ? acceptedTransaction : resizeTransaction;
+        if (transaction != null) {
+            internalAccept(transaction.location, transaction.initialHeight,
+                    transaction.initialWidth, transaction.pendingHeight,
+                    transaction.pendingWidth);
+        }
+    }
+
+    /**
+     * Updates the new resized size of the component. Moves the component with
+     * the {@link ResizePositionStrategy} registered for its container, by
+     * default only when it is inside a {@link com.vaadin.ui.AbsoluteLayout}.
+     * When a subclass overrides any of the deprecated
+     * {@link #moveTop(int, AbsoluteLayout, Component)} style hooks, the
+     * default {@link AbsoluteLayoutPositionStrategy} is replaced by calls to
+     * the hooks.
+     *
+     * @param resizeLocation
+     *            the location that was dragged, or <code>null</code> to only
+     *            update the size
+     * @param initialHeight
+     *            the height reported by the client at resize start
+     * @param initialWidth
+     *            the width reported by the client at resize start
+     * @param height
+     *            the accepted height in pixels
+     * @param width
+     *            the accepted width in pixels
+     */
+    protected void internalAccept(ResizeLocation resizeLocation,
+            int initialHeight, int initialWidth, int height, int width) {
+        if (!positionHolderResolved
+                || positionStrategiesVersion != ResizePositionStrategies
+                        .getVersion()) {
+            resolvePositionHolder();
+        }
+        int pendingWidth = width;
+        int pendingHeight = height;
+        if (positionStrategy != null && resizeLocation != null) {
+            // the delta is from the size on the server, the initial size
+            // reported by the client is only used when there is no pixel size
+            int currentWidth = getWidthUnits() == Unit.PIXELS
+                    && getWidth() >= 0 ? Math.round(getWidth())
+                            : initialWidth;
+            int currentHeight = getHeightUnits() == Unit.PIXELS
+                    && getHeight() >= 0 ? Math.round(getHeight())
+                            : initialHeight;
+            if (positionStrategy instanceof AbsoluteLayoutPositionStrategy
+                    && MOVE_HOOKS_OVERRIDDEN.get(getClass())) {
+                moveWithHooks(resizeLocation, currentWidth - pendingWidth,
+                        currentHeight - pendingHeight,
+                        (AbsoluteLayout) positionContainer);
+            } else {
+                positionStrategy.updatePosition(positionContainer,
+                        positionHolder, resizeLocation,
+                        currentWidth - pendingWidth,
+                        currentHeight - pendingHeight);
+            }
+        }
+        boolean sizeChanged = false;
+        if (getWidth() != pendingWidth || getWidthUnits() != Unit.PIXELS) {
+            setWidth(pendingWidth, Unit.PIXELS);
+            sizeChanged = true;
+        }
+        if (getHeight() != pendingHeight || getHeightUnits() != Unit.PIXELS) {
+            setHeight(pendingHeight, Unit.PIXELS);
+            sizeChanged = true;
+        }
+        ResizeMetrics metrics = getMetrics();
+        if (metrics != null && !sizeChanged) {
+            // nothing to write, a later unrelated change must not be counted
+            metrics.accepted(0);
+        }
+        measureAcceptState = metrics != null && sizeChanged;
+    }
+
+    /**
+     * Resolves the container that positions this component, the direct child
+     * of it that holds the position and the position strategy for the
+     * container, skipping any
+     * {@link com.vaadin.ui.CustomComponent}s that wrap this component. The
+     * result is cached until the component is attached, detached or its
+     * parent changes, since the wrapping custom components are detached and
+     * reattached with it when they are moved. The cache is also dropped when
+     * the {@link ResizePositionStrategies} registry changes.
+     */
+    private void resolvePositionHolder() {
         HasComponents parentContainer = getParent();
-        Component positionHolder = this;
+        Component holder = this;
         while (parentContainer instanceof CustomComponent) {
             HasComponents parentParent = parentContainer.getParent();
             if (parentParent != null) {
-                positionHolder = parentContainer;
+                holder = parentContainer;
                 parentContainer = parentParent;
             } else {
                 break;
             }
         }
+        positionContainer = parentContainer;
+        positionHolder = holder;
+        positionStrategiesVersion = ResizePositionStrategies.getVersion();
+        positionStrategy = ResizePositionStrategies.get(parentContainer);
+        positionHolderResolved = true;
+    }
 
-        if (parentContainer instanceof AbsoluteLayout) {
-            AbsoluteLayout absoluteLayout = (AbsoluteLayout) parentContainer;
-            switch (latestResizeLocation) {
-            case TOP_LEFT:
-                moveLeft(initialWidth - pendingWidth, absoluteLayout,
-                        positionHolder);
-            case TOP:
-                moveTop(initialHeight - pendingHeight, absoluteLayout,
-                        positionHolder);
-                break;
-            case TOP_RIGHT:
-                moveTop(initialHeight - pendingHeight, absoluteLayout,
-                        positionHolder);
-            case RIGHT:
-                moveRight(initialWidth - pendingWidth, absoluteLayout,
-                        positionHolder);
-                break;
-            case BOTTOM_RIGHT:
-                moveRight(initialWidth - pendingWidth, absoluteLayout,
-                        positionHolder);
-            case BOTTOM:
-                moveBottom(initialHeight - pendingHeight, absoluteLayout,
-                        positionHolder);
-                break;
-            case BOTTOM_LEFT:
-                moveBottom(initialHeight - pendingHeight, absoluteLayout,
-                        positionHolder);
-            case LEFT:
-                moveLeft(initialWidth - pendingWidth, absoluteLayout,
-                        positionHolder);
-                break;
-            default:
-                break;
+    private void invalidatePositionHolder() {
+        positionHolderResolved = false;
+        positionContainer = null;
+        positionHolder = null;
+        positionStrategy = null;
+    }
+
+    @Override
+    public void setParent(HasComponents parent) {
+        // before super, which attaches the component and resolves it again
+        invalidatePositionHolder();
+        super.setParent(parent);
+    }
+
+    @Override
+    public void attach() {
+        super.attach();
+        resolvePositionHolder();
+    }
+
+    @Override
+    public void detach() {
+        invalidatePositionHolder();
+        super.detach();
+    }
+
+    @Override
+    public void beforeClientResponse(boolean initial) {
+        super.beforeClientResponse(initial);
+        if (measureAcceptState) {
+            measureAcceptState = false;
+            ResizeMetrics metrics = getMetrics();
+            if (metrics != null && !initial) {
+                metrics.accepted(getStateDiffLength());
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the state changes that are about to be written
+     * to the client, without marking them as written. This encodes the state
+     * once more on top of the encoding for the response, so it is only
+     * called when the {@link ResizeMetrics} are enabled.
+     */
+    private int getStateDiffLength() {
+        ConnectorTracker tracker = getUI().getConnectorTracker();
+        JsonValue diff = JsonCodec.encode(getState(false),
+                tracker.getDiffState(this), getStateType(), tracker)
+                .getDiff();
+        return diff == null ? 0 : diff.toJson().length();
+    }
+
+    /**
+     * Moves the dragged sides with the deprecated move hooks, one
+     * {@link AbsoluteLayout#setPosition(Component, ComponentPosition)} per
+     * side, for subclasses that still override them.
+     */
+    @SuppressWarnings("deprecation")
+    private void moveWithHooks(ResizeLocation resizeLocation, int widthDelta,
+            int heightDelta, AbsoluteLayout absoluteLayout) {
+        switch (resizeLocation) {
+        case TOP_LEFT:
+            moveLeft(widthDelta, absoluteLayout, positionHolder);
+        case TOP:
+            moveTop(heightDelta, absoluteLayout, positionHolder);
+            break;
+        case TOP_RIGHT:
+            moveTop(heightDelta, absoluteLayout, positionHolder);
+        case RIGHT:
+            moveRight(widthDelta, absoluteLayout, positionHolder);
+            break;
+        case BOTTOM_RIGHT:
+            moveRight(widthDelta, absoluteLayout, positionHolder);
+        case BOTTOM:
+            moveBottom(heightDelta, absoluteLayout, positionHolder);
+            break;
+        case BOTTOM_LEFT:
+            moveBottom(heightDelta, absoluteLayout, positionHolder);
+        case LEFT:
+            moveLeft(widthDelta, absoluteLayout, positionHolder);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Returns whether the class overrides any of the deprecated move hooks.
+     */
+    private static boolean overridesMoveHooks(Class<?> type) {
+        for (Class<?> c = type; c != ResizableCssLayout.class; c = c
+                .getSuperclass()) {
+            for (String name : new String[] { "moveTop", "moveBottom",
+                    "moveRight", "moveLeft" }) {
+                try {
+                    c.getDeclaredMethod(name, int.class, AbsoluteLayout.class,
+                            Component.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // not overridden in this class
+                }
             }
         }
-        setWidth(pendingWidth, Unit.PIXELS);
-        setHeight(pendingHeight, Unit.PIXELS);
+        return false;
     }
 
     /**
@@ -173,6 +690,10 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * {@link com.vaadin.ui.AbsoluteLayout} and top position was set with
      * pixels.
      *
+     * @deprecated moves one side at a time, the sides are moved together
+     *             with {@link AbsoluteLayoutPositionStrategy} unless a
+     *             subclass overrides this
+     *
      * @param delta
      *            the change of top position in pixels
      * @param the
@@ -180,6 +701,7 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * @param positionHolder
      *            the component that is inside the absolute layout
      */
+    @Deprecated
     protected void moveTop(int delta, AbsoluteLayout absoluteLayout,
             Component positionHolder) {
         ComponentPosition position = absoluteLayout.getPosition(positionHolder);
@@ -201,6 +723,10 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * {@link com.vaadin.ui.AbsoluteLayout} and bottom position was set with
      * pixels.
      *
+     * @deprecated moves one side at a time, the sides are moved together
+     *             with {@link AbsoluteLayoutPositionStrategy} unless a
+     *             subclass overrides this
+     *
      * @param delta
      *            the change of bottom position in pixels
      * @param the
@@ -208,6 +734,7 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * @param positionHolder
      *            the component that is inside the absolute layout
      */
+    @Deprecated
     protected void moveBottom(int delta, AbsoluteLayout absoluteLayout,
             Component positionHolder) {
         ComponentPosition position = absoluteLayout.getPosition(positionHolder);
@@ -229,12 +756,17 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * {@link com.vaadin.ui.AbsoluteLayout} and right position was set with
      * pixels.
      *
+     * @deprecated moves one side at a time, the sides are moved together
+     *             with {@link AbsoluteLayoutPositionStrategy} unless a
+     *             subclass overrides this
+     *
      * @param delta
      *            the change of right position in pixels
      * @param the
      *            absolute layout that contains the component
      * @param positionHolder
      */
+    @Deprecated
     protected void moveRight(int delta, AbsoluteLayout absoluteLayout,
             Component positionHolder) {
         ComponentPosition position = absoluteLayout.getPosition(positionHolder);
@@ -256,6 +788,10 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * {@link com.vaadin.ui.AbsoluteLayout} and left position was set with
      * pixels.
      *
+     * @deprecated moves one side at a time, the sides are moved together
+     *             with {@link AbsoluteLayoutPositionStrategy} unless a
+     *             subclass overrides this
+     *
      * @param delta
      *            the change of left position in pixels
      * @param the
@@ -263,6 +799,7 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * @param positionHolder
      *            the component that is inside the absolute layout
      */
+    @Deprecated
     protected void moveLeft(int delta, AbsoluteLayout absoluteLayout,
             Component positionHolder) {
         ComponentPosition position = absoluteLayout.getPosition(positionHolder);
@@ -303,6 +840,67 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
         return getState(false).autoAcceptResize;
     }
 
+    /**
+     * Sets the optimistic resize mode. This only has effect when the
+     * component is not in auto accept resize mode (
+     * {@link #isAutoAcceptResize()}). When set to <code>true</code>, the client
+     * side widget applies the new size immediately when the resize ends
+     * instead of waiting for the acceptance from the server, and restores the
+     * previous size only if the resize is cancelled with
+     * {@link #cancelResize()}. The user can start a new resize while the
+     * previous one is still pending.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public void setOptimisticResize(boolean optimisticResize) {
+        if (getState(false).optimisticResize != optimisticResize) {
+            getState().optimisticResize = optimisticResize;
+        }
+    }
+
+    /**
+     * Is the component in optimistic resize mode. See
+     * {@link #setOptimisticResize(boolean)} for more info.
+     */
+    public boolean isOptimisticResize() {
+        return getState(false).optimisticResize;
+    }
+
+    /**
+     * Sets how long to wait for the verdicts of the
+     * {@link ResizeVetoListener}s before responding the given default verdict
+     * to the client. Verdicts that complete after the timeout are ignored.
+     * <p>
+     * Default is <code>5000</code> milliseconds, after which the resize is
+     * canceled.
+     */
+    public void setResizeVerdictTimeout(long timeoutMillis,
+            boolean acceptOnTimeout) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Timeout can't be negative: " + timeoutMillis);
+        }
+        resizeVerdictTimeout = timeoutMillis;
+        resizeVerdictTimeoutAccepts = acceptOnTimeout;
+    }
+
+    /**
+     * Returns the verdict timeout in milliseconds. See
+     * {@link #setResizeVerdictTimeout(long, boolean)} for more info.
+     */
+    public long getResizeVerdictTimeout() {
+        return resizeVerdictTimeout;
+    }
+
+    /**
+     * Returns whether the resize is accepted when the verdict timeout
+     * expires. See {@link #setResizeVerdictTimeout(long, boolean)} for more
+     * info.
+     */
+    public boolean isResizeVerdictTimeoutAccepts() {
+        return resizeVerdictTimeoutAccepts;
+    }
+
     /**
      * Sets the resize mode on/off.
      */
@@ -367,7 +965,7 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * Returns the current resize locations.
      */
     public Collection<ResizeLocation> getResizeLocations() {
-        return getState(false).resizeLocations;
+        return ResizeLocation.fromMask(getState(false).resizeLocations);
     }
 
     /**
@@ -378,9 +976,10 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
      * and {@link #setSidesResizable()} for shortcuts.
      */
     public void setResizeLocations(Collection<ResizeLocation> resizeLocations) {
-        ResizableCssLayoutState state = getState();
-        state.resizeLocations.clear();
-        state.resizeLocations.addAll(resizeLocations);
+        int mask = ResizeLocation.toMask(resizeLocations);
+        if (getState(false).resizeLocations != mask) {
+            getState().resizeLocations = mask;
+        }
     }
 
     /**
@@ -435,6 +1034,234 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
         return getState(false).keepAspectRatio;
     }
 
+    /**
+     * Sets the drag overlay to show the new size with a CSS transform instead
+     * of changing its size during the drag. This keeps dragging smooth when
+     * the layout contains heavy content, as the overlay is only scaled on its
+     * own compositing layer and the new pixel size is calculated when the
+     * resize ends. Note that the overlay border is scaled along with the
+     * overlay.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public void setTransformDragOverlay(boolean transformDragOverlay) {
+        if (getState(false).transformDragOverlay != transformDragOverlay) {
+            getState().transformDragOverlay = transformDragOverlay;
+        }
+    }
+
+    /**
+     * Returns whether the drag overlay shows the new size with a CSS
+     * transform. See {@link #setTransformDragOverlay(boolean)} for more info.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public boolean isTransformDragOverlay() {
+        return getState(false).transformDragOverlay;
+    }
+
+    /**
+     * Sets the minimum interval in milliseconds between
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeProgressEvent}s
+     * sent from the client during a resize. Only the latest size is sent, so
+     * intermediate sizes are dropped if the server can't keep up. A negative
+     * value disables the progress events.
+     * <p>
+     * Default is <code>-1</code>, progress events are disabled.
+     */
+    public void setResizeProgressInterval(int resizeProgressInterval) {
+        if (getState(false).resizeProgressInterval != resizeProgressInterval) {
+            getState().resizeProgressInterval = resizeProgressInterval;
+        }
+    }
+
+    /**
+     * Returns the minimum interval in milliseconds between resize progress
+     * events, or a negative value if they are disabled. See
+     * {@link #setResizeProgressInterval(int)} for more info.
+     */
+    public int getResizeProgressInterval() {
+        return getState(false).resizeProgressInterval;
+    }
+
+    /**
+     * Sets the minimum width in pixels for a resize. The limit is applied on
+     * the client side during the drag, and validated on the server side when
+     * the resize ends.
+     * <p>
+     * Default is <code>0</code>.
+     */
+    public void setMinResizeWidth(int minResizeWidth) {
+        if (getState(false).minResizeWidth != minResizeWidth) {
+            getState().minResizeWidth = minResizeWidth;
+        }
+    }
+
+    /**
+     * Returns the minimum width in pixels for a resize. See
+     * {@link #setMinResizeWidth(int)} for more info.
+     */
+    public int getMinResizeWidth() {
+        return getState(false).minResizeWidth;
+    }
+
+    /**
+     * Sets the maximum width in pixels for a resize, or a negative value for
+     * no maximum. The limit is applied on the client side during the drag,
+     * and validated on the server side when the resize ends.
+     * <p>
+     * Default is <code>-1</code>.
+     */
+    public void setMaxResizeWidth(int maxResizeWidth) {
+        if (getState(false).maxResizeWidth != maxResizeWidth) {
+            getState().maxResizeWidth = maxResizeWidth;
+        }
+    }
+
+    /**
+     * Returns the maximum width in pixels for a resize, or a negative value
+     * if there is no maximum. See {@link #setMaxResizeWidth(int)} for more
+     * info.
+     */
+    public int getMaxResizeWidth() {
+        return getState(false).maxResizeWidth;
+    }
+
+    /**
+     * Sets the minimum height in pixels for a resize. The limit is applied on
+     * the client side during the drag, and validated on the server side when
+     * the resize ends.
+     * <p>
+     * Default is <code>0</code>.
+     */
+    public void setMinResizeHeight(int minResizeHeight) {
+        if (getState(false).minResizeHeight != minResizeHeight) {
+            getState().minResizeHeight = minResizeHeight;
+        }
+    }
+
+    /**
+     * Returns the minimum height in pixels for a resize. See
+     * {@link #setMinResizeHeight(int)} for more info.
+     */
+    public int getMinResizeHeight() {
+        return getState(false).minResizeHeight;
+    }
+
+    /**
+     * Sets the maximum height in pixels for a resize, or a negative value for
+     * no maximum. The limit is applied on the client side during the drag,
+     * and validated on the server side when the resize ends.
+     * <p>
+     * Default is <code>-1</code>.
+     */
+    public void setMaxResizeHeight(int maxResizeHeight) {
+        if (getState(false).maxResizeHeight != maxResizeHeight) {
+            getState().maxResizeHeight = maxResizeHeight;
+        }
+    }
+
+    /**
+     * Returns the maximum height in pixels for a resize, or a negative value
+     * if there is no maximum. See {@link #setMaxResizeHeight(int)} for more
+     * info.
+     */
+    public int getMaxResizeHeight() {
+        return getState(false).maxResizeHeight;
+    }
+
+    /**
+     * Sets the step in pixels that the resized width and height are rounded
+     * to, e.g. <code>10</code> to snap the size to a 10 pixel grid. The step is
+     * applied on the client side during the drag, and validated on the server
+     * side when the resize ends.
+     * <p>
+     * Default is <code>1</code>.
+     */
+    public void setResizeStep(int resizeStep) {
+        if (getState(false).resizeStep != resizeStep) {
+            getState().resizeStep = resizeStep;
+        }
+    }
+
+    /**
+     * Returns the step in pixels that the resized width and height are
+     * rounded to. See {@link #setResizeStep(int)} for more info.
+     */
+    public int getResizeStep() {
+        return getState(false).resizeStep;
+    }
+
+    /**
+     * Sets the distance in pixels the pointer has to move on a resize location
+     * before the drag counts as a resize. Clicks on the resize locations that
+     * don't move the pointer that far don't send anything to the server or
+     * fire any events.
+     * <p>
+     * Default is <code>3</code>.
+     */
+    public void setDragThreshold(int dragThreshold) {
+        if (getState(false).dragThreshold != dragThreshold) {
+            getState().dragThreshold = dragThreshold;
+        }
+    }
+
+    /**
+     * Returns the drag threshold in pixels. See {@link #setDragThreshold(int)}
+     * for more info.
+     */
+    public int getDragThreshold() {
+        return getState(false).dragThreshold;
+    }
+
+    /**
+     * Sets whether the timings of each resize are traced. The client reports
+     * its drag timings with the resize end and the time until the verdict was
+     * applied with the next request. They are joined with the server side
+     * timings into a {@link ResizeTrace}, available from
+     * {@link ResizeEndEvent#getTrace()} and passed to the
+     * {@link #addResizeTraceListener(SerializableConsumer)} listeners once
+     * complete.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public void setResizeTracing(boolean resizeTracing) {
+        if (getState(false).resizeTracing != resizeTracing) {
+            getState().resizeTracing = resizeTracing;
+        }
+    }
+
+    /**
+     * Returns whether the timings of each resize are traced. See
+     * {@link #setResizeTracing(boolean)} for more info.
+     */
+    public boolean isResizeTracing() {
+        return getState(false).resizeTracing;
+    }
+
+    /**
+     * Sets whether the client samples the gaps between animation frames
+     * during the drags of this layout. The gaps of all the sampled layouts in
+     * the UI are aggregated on the client and reported periodically with the
+     * next request as {@link FrameReportEvent}s. Nothing is sampled or
+     * scheduled on the client when disabled.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public void setFrameSampling(boolean frameSampling) {
+        if (getState(false).frameSampling != frameSampling) {
+            getState().frameSampling = frameSampling;
+        }
+    }
+
+    /**
+     * Returns whether the gaps between animation frames are sampled during
+     * the drags. See {@link #setFrameSampling(boolean)} for more info.
+     */
+    public boolean isFrameSampling() {
+        return getState(false).frameSampling;
+    }
+
     @Override
     public ResizableCssLayoutState getState() {
         return (ResizableCssLayoutState) super.getState();
@@ -446,40 +1273,333 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
     }
 
     /**
-     * Adds a resize listener for
-     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeStartEvent}
-     * and
-     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent}
-     * for this component.
+     * Adds a resize listener for all the resize events of this component.
+     * Adding the same listener again has no effect.
+     *
+     * @return a registration for removing the listener
      */
-    public void addResizeListener(ResizeListener listener) {
-        addListener(ResizeStartEvent.class, listener,
-                ResizeListener.RESIZE_START_METHOD);
-        addListener(ResizeEndEvent.class, listener,
-                ResizeListener.RESIZE_END_METHOD);
-        addListener(ResizeCancelEvent.class, listener,
-                ResizeListener.RESIZE_CANCEL_METHOD);
+    public Registration addResizeListener(ResizeListener listener) {
+        if (resizeListenerRegistrations == null) {
+            resizeListenerRegistrations = new HashMap<ResizeListener, Registration>();
+        } else if (resizeListenerRegistrations.containsKey(listener)) {
+            return () -> removeResizeListener(listener);
+        }
+        Registration start = addResizeStartListener(listener::resizeStart);
+        Registration end = addResizeEndListener(listener::resizeEnd);
+        Registration progress = addResizeProgressListener(
+                listener::resizeProgress);
+        Registration cancel = addResizeCancelListener(listener::resizeCancel);
+        resizeListenerRegistrations.put(listener, () -> {
+            start.remove();
+            end.remove();
+            progress.remove();
+            cancel.remove();
+        });
+        return () -> removeResizeListener(listener);
     }
 
     /**
      * Removes the resize listener from this component.
      */
     public void removeResizeListener(ResizeListener listener) {
-        removeListener(ResizeStartEvent.class, listener);
-        removeListener(ResizeEndEvent.class, listener);
+        if (resizeListenerRegistrations != null) {
+            Registration registration = resizeListenerRegistrations
+                    .remove(listener);
+            if (registration != null) {
+                registration.remove();
+            }
+        }
+    }
+
+    /**
+     * Adds a listener for
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeStartEvent}s.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeStartListener(
+            SerializableConsumer<ResizeStartEvent> listener) {
+        return resizeStartListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener for
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent}s.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeEndListener(
+            SerializableConsumer<ResizeEndEvent> listener) {
+        return resizeEndListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener for
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeProgressEvent}s.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeProgressListener(
+            SerializableConsumer<ResizeProgressEvent> listener) {
+        return resizeProgressListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener for
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeCancelEvent}s.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeCancelListener(
+            SerializableConsumer<ResizeCancelEvent> listener) {
+        return resizeCancelListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener for the {@link ResizeTrace}s of the resizes when
+     * {@link #setResizeTracing(boolean)} is enabled. The listener is called
+     * once the client has reported the verdict applied, e.g. with a
+     * {@link ResizeTraceFileWriter}.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeTraceListener(
+            SerializableConsumer<ResizeTrace> listener) {
+        return resizeTraceListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener for the
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.FrameReportEvent}s
+     * reported through this layout when {@link #setFrameSampling(boolean)} is
+     * enabled. The reports cover all the sampled layouts of the UI, so use
+     * {@link ResizeEventBus} to receive them regardless of the layout they
+     * were reported through.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addFrameReportListener(
+            SerializableConsumer<FrameReportEvent> listener) {
+        return frameReportListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener for
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent}s
+     * that is run outside of the request thread and the session lock, with
+     * the executor from {@link #getAsyncListenerExecutor()}. The runnable
+     * returned by the listener is applied to the UI with
+     * {@link UI#access(Runnable)}.
+     * <p>
+     * The event is handed to the listener only after the resize has been
+     * accepted, so after the synchronous listeners and the
+     * {@link ResizeVetoListener}s, and never for a canceled or rejected
+     * resize. The listener can't cancel the resize anymore. The event is only
+     * handed to the listener when the component is attached.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addAsyncResizeEndListener(
+            AsyncResizeListener<ResizeEndEvent> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener can't be null");
+        }
+        return asyncResizeEndListeners
+                .add(event -> runAsync(event, listener));
+    }
+
+    /**
+     * Sets the executor for the listeners added with
+     * {@link #addAsyncResizeEndListener(AsyncResizeListener)}, or
+     * <code>null</code> to use {@link ResizeListenerExecutors#getDefault()}.
+     * The executor is not serialized with the component.
+     */
+    public void setAsyncListenerExecutor(Executor executor) {
+        asyncListenerExecutor = executor;
+    }
+
+    /**
+     * Returns the executor for the asynchronous resize listeners.
+     */
+    public Executor getAsyncListenerExecutor() {
+        return asyncListenerExecutor != null ? asyncListenerExecutor
+                : ResizeListenerExecutors.getDefault();
+    }
+
+    private <E extends Event> void runAsync(E event,
+            AsyncResizeListener<E> listener) {
+        UI ui = getUI();
+        if (ui == null) {
+            return;
+        }
+        ResizeListenerExecutors.shutdownWith(ui.getSession());
+        getAsyncListenerExecutor().execute(() -> {
+            Runnable result;
+            try {
+                result = listener.onResize(event);
+            } catch (RuntimeException e) {
+                // reported through the error handler of the session
+                result = () -> {
+                    throw e;
+                };
+            }
+            if (result != null) {
+                try {
+                    ui.access(result);
+                } catch (UIDetachedException e) {
+                    // UI closed while the listener was running, NOOP
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a listener that decides asynchronously whether a resize is
+     * accepted, when not in auto accept resize mode. The listener is called
+     * after the
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent}
+     * listeners, unless they canceled the resize already. The resize is
+     * accepted if all the verdicts complete with <code>true</code> before the
+     * timeout set with {@link #setResizeVerdictTimeout(long, boolean)}.
+     * <p>
+     * The verdict is sent to the client with {@link UI#access(Runnable)}, so
+     * server push or polling should be enabled for the UI.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeVetoListener(ResizeVetoListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener can't be null");
+        }
+        if (resizeVetoListeners == null) {
+            resizeVetoListeners = new ArrayList<ResizeVetoListener>();
+        }
+        resizeVetoListeners.add(listener);
+        return () -> resizeVetoListeners.remove(listener);
     }
 
     protected void fireResizeStart(ResizeLocation resizeLocation, int height,
             int width) {
-        fireEvent(new ResizeStartEvent(this, resizeLocation, height, width));
+        fireResizeEvent(new ResizeStartEvent(this, resizeLocation, height,
+                width), resizeStartListeners);
     }
 
     protected void fireResizeEnd(int height, int width) {
-        fireEvent(new ResizeEndEvent(this, height, width));
+        ResizeTrace trace = resizeTransaction == null ? null
+                : resizeTransaction.trace;
+        fireResizeEvent(new ResizeEndEvent(this, height, width, trace),
+                resizeEndListeners);
+    }
+
+    protected void fireResizeProgress(int height, int width) {
+        fireResizeEvent(new ResizeProgressEvent(this, height, width),
+                resizeProgressListeners);
     }
 
     protected void fireResizeCancel() {
-        fireEvent(new ResizeCancelEvent(this));
+        fireResizeEvent(new ResizeCancelEvent(this), resizeCancelListeners);
+    }
+
+    /**
+     * Fires the event to the listeners of this component, and posts it to the
+     * {@link ResizeEventBus} of the UI if there is one. Listeners added with
+     * {@link #addListener(Class, Object, Method)} are still notified.
+     */
+    private <E extends Event> void fireResizeEvent(E event,
+            TypedListeners<E> listeners) {
+        listeners.fire(event);
+        fireEvent(event);
+        UI ui = getUI();
+        if (ui != null) {
+            ResizeEventBus eventBus = ResizeEventBus.find(ui);
+            if (eventBus != null) {
+                eventBus.post(event);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of one resize from start to the verdict, so that verdicts that
+     * complete later are applied to the right resize. The id is assigned by
+     * the client and sent back with the verdict.
+     */
+    private static class ResizeTransaction implements Serializable {
+
+        private final int id;
+        private final ResizeLocation location;
+        private final int initialHeight;
+        private final int initialWidth;
+        private int pendingHeight;
+        private int pendingWidth;
+        private boolean ended;
+        private Boolean verdict;
+        private ResizeTrace trace;
+
+        ResizeTransaction(int id, ResizeLocation location, int initialHeight,
+                int initialWidth) {
+            this.id = id;
+            this.location = location;
+            this.initialHeight = initialHeight;
+            this.initialWidth = initialWidth;
+        }
+    }
+
+    /**
+     * Listeners for one event type, called directly without reflection. The
+     * listener array is copied on change so that listeners can be added and
+     * removed while firing.
+     */
+    private static class TypedListeners<E> implements Serializable {
+
+        private SerializableConsumer<E>[] listeners;
+
+        @SuppressWarnings("unchecked")
+        Registration add(SerializableConsumer<E> listener) {
+            if (listener == null) {
+                throw new IllegalArgumentException("Listener can't be null");
+            }
+            if (listeners == null) {
+                listeners = new SerializableConsumer[] { listener };
+            } else {
+                listeners = Arrays.copyOf(listeners, listeners.length + 1);
+                listeners[listeners.length - 1] = listener;
+            }
+            return () -> remove(listener);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void remove(SerializableConsumer<E> listener) {
+            if (listeners == null) {
+                return;
+            }
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i] == listener) {
+                    if (listeners.length == 1) {
+                        listeners = null;
+                    } else {
+                        SerializableConsumer<E>[] copy = new SerializableConsumer[listeners.length - 1];
+                        System.arraycopy(listeners, 0, copy, 0, i);
+                        System.arraycopy(listeners, i + 1, copy, i,
+                                copy.length - i);
+                        listeners = copy;
+                    }
+                    return;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return listeners == null;
+        }
+
+        void fire(E event) {
+            SerializableConsumer<E>[] current = listeners;
+            if (current != null) {
+                for (SerializableConsumer<E> listener : current) {
+                    listener.accept(event);
+                }
+            }
+        }
     }
 
     /**
@@ -502,11 +1622,57 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
                 .findMethod(ResizeListener.class, "resizeCancel",
                         ResizeCancelEvent.class);
 
+        public static final Method RESIZE_PROGRESS_METHOD = ReflectTools
+                .findMethod(ResizeListener.class, "resizeProgress",
+                        ResizeProgressEvent.class);
+
         void resizeStart(ResizeStartEvent event);
 
         void resizeEnd(ResizeEndEvent event);
 
         void resizeCancel(ResizeCancelEvent event);
+
+        /**
+         * Called during the resize when progress events are enabled with
+         * {@link ResizableCssLayout#setResizeProgressInterval(int)}. Does
+         * nothing by default.
+         */
+        default void resizeProgress(ResizeProgressEvent event) {
+        }
+    }
+
+    /**
+     * Listener that decides asynchronously whether a resize is accepted, see
+     * {@link ResizableCssLayout#addResizeVetoListener(ResizeVetoListener)}.
+     */
+    @FunctionalInterface
+    public interface ResizeVetoListener extends Serializable {
+
+        /**
+         * Returns the verdict for the resize in the event,
+         * <code>true</code> to accept it. A verdict completing exceptionally
+         * cancels the resize, <code>null</code> has no say.
+         */
+        CompletionStage<Boolean> resizeVerdict(ResizeEndEvent event);
+    }
+
+    /**
+     * Listener that is run outside of the request thread, see
+     * {@link ResizableCssLayout#addAsyncResizeEndListener(AsyncResizeListener)}
+     * . The listener must not modify the UI directly, but return the UI
+     * changes as a runnable.
+     */
+    @FunctionalInterface
+    public interface AsyncResizeListener<E extends Event>
+            extends Serializable {
+
+        /**
+         * Handles the event in a background thread.
+         *
+         * @return the changes to apply to the UI with
+         *         {@link UI#access(Runnable)}, or <code>null</code> for none
+         */
+        Runnable onResize(E event);
     }
 
     /**
@@ -562,11 +1728,29 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
 
         private final int height;
         private final int width;
+        private final ResizeTrace trace;
 
         public ResizeEndEvent(Component source, int height, int width) {
+            this(source, height, width, null);
+        }
+
+        public ResizeEndEvent(Component source, int height, int width,
+                ResizeTrace trace) {
             super(source);
             this.height = height;
             this.width = width;
+            this.trace = trace;
+        }
+
+        /**
+         * The trace of the resize with the client side timings, or
+         * <code>null</code> if
+         * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout#setResizeTracing(boolean)}
+         * is not enabled. The server side timings are added to it after the
+         * listeners.
+         */
+        public ResizeTrace getTrace() {
+            return trace;
         }
 
         /**
@@ -588,6 +1772,37 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
         }
     }
 
+    /**
+     * Event for resize progress, fired during the resize when enabled with
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout#setResizeProgressInterval(int)}
+     * . Contains the latest size of the resize in progress.
+     */
+    public static class ResizeProgressEvent extends Event {
+
+        private final int height;
+        private final int width;
+
+        public ResizeProgressEvent(Component source, int height, int width) {
+            super(source);
+            this.height = height;
+            this.width = width;
+        }
+
+        /**
+         * The current height in pixels of the resize in progress.
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * The current width in pixels of the resize in progress.
+         */
+        public int getWidth() {
+            return width;
+        }
+    }
+
     /**
      * Event for resize cancel, fired when the user has canceled the resize by
      * pressing the ESC key. The resizing is no longer active and the component
@@ -600,4 +1815,58 @@ public class ResizableCssLayout extends com.vaadin.ui.CssLayout {
         }
 
     }
+
+    /**
+     * Histogram of the gaps between animation frames during the resize drags
+     * of all the frame sampling layouts in the UI since the previous report.
+     * The buckets are described by {@link FrameGapHistogram}.
+     */
+    public static class FrameReportEvent extends Event {
+
+        private final int[] gapCounts;
+        private final int droppedFrames;
+        private final int maxGap;
+
+        public FrameReportEvent(Component source, int[] gapCounts,
+                int droppedFrames, int maxGap) {
+            super(source);
+            this.gapCounts = gapCounts.clone();
+            this.droppedFrames = droppedFrames;
+            this.maxGap = maxGap;
+        }
+
+        /**
+         * The number of frame gaps in each bucket of the
+         * {@link FrameGapHistogram}.
+         */
+        public int[] getGapCounts() {
+            return gapCounts.clone();
+        }
+
+        /**
+         * The number of sampled frame gaps.
+         */
+        public int getFrames() {
+            int frames = 0;
+            for (int count : gapCounts) {
+                frames += count;
+            }
+            return frames;
+        }
+
+        /**
+         * The number of frames missed compared to
+         * {@link FrameGapHistogram#FRAME_BUDGET_MILLIS}.
+         */
+        public int getDroppedFrames() {
+            return droppedFrames;
+        }
+
+        /**
+         * The longest gap between two frames in milliseconds.
+         */
+        public int getMaxGap() {
+            return maxGap;
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.vaadin.server.AbstractExtension;
+import com.vaadin.server.Extension;
+import com.vaadin.shared.Registration;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.UI;
+
+/**
+ * UI wide event bus for the resize events of all the
+ * {@link com.vaadin.pekka.resizablecsslayout.ResizableCssLayout} components in
+ * a UI. The events produced during one server request are collected and
+ * delivered to the listeners as a single
+ * {@link com.vaadin.pekka.resizablecsslayout.ResizeEventBus.ResizeBatchEvent}
+ * just before the response is written to the client.
+ * <p>
+ * Use {@link #get(UI)} to get the bus for a UI. Events are only collected
+ * while the bus has listeners.
+ */
+@SuppressWarnings("serial")
+public class ResizeEventBus extends AbstractExtension {
+
+    private final List<ResizeBatchListener> listeners = new ArrayList<ResizeBatchListener>();
+
+    private List<Component.Event> pendingEvents = new ArrayList<Component.Event>();
+
+    protected ResizeEventBus() {
+    }
+
+    /**
+     * Returns the resize event bus of the given UI, creating it if needed.
+     */
+    public static ResizeEventBus get(UI ui) {
+        ResizeEventBus eventBus = find(ui);
+        if (eventBus == null) {
+            eventBus = new ResizeEventBus();
+            eventBus.extend(ui);
+        }
+        return eventBus;
+    }
+
+    /**
+     * Returns the resize event bus of the given UI, or <code>null</code> if
+     * none has been created.
+     */
+    static ResizeEventBus find(UI ui) {
+        for (Extension extension : ui.getExtensions()) {
+            if (extension instanceof ResizeEventBus) {
+                return (ResizeEventBus) extension;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a listener for the batched resize events of all the resizable
+     * layouts in the UI.
+     *
+     * @return a registration for removing the listener
+     */
+    public Registration addResizeBatchListener(ResizeBatchListener listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Queues the event to be delivered with the batch of the current request.
+     */
+    protected void post(Component.Event event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        pendingEvents.add(event);
+        // beforeClientResponse is only called for dirty connectors
+        markAsDirty();
+    }
+
+    @Override
+    public void beforeClientResponse(boolean initial) {
+        super.beforeClientResponse(initial);
+        if (!pendingEvents.isEmpty()) {
+            ResizeBatchEvent batch = new ResizeBatchEvent(getUI(),
+                    pendingEvents);
+            pendingEvents = new ArrayList<Component.Event>();
+            for (ResizeBatchListener listener : new ArrayList<ResizeBatchListener>(
+                    listeners)) {
+                listener.resizeBatch(batch);
+            }
+        }
+    }
+
+    @Override
+    public UI getUI() {
+        return (UI) getParent();
+    }
+
+    /**
+     * Interface for listening to
+     * {@link com.vaadin.pekka.resizablecsslayout.ResizeEventBus.ResizeBatchEvent}s
+     * of a {@link com.vaadin.pekka.resizablecsslayout.ResizeEventBus}.
+     */
+    @FunctionalInterface
+    public interface ResizeBatchListener extends Serializable {
+
+        void resizeBatch(ResizeBatchEvent event);
+    }
+
+    /**
+     * Event containing all the resize events of the resizable layouts in a UI
+     * that were produced during one server request, in the order they were
+     * fired.
+     */
+    public static class ResizeBatchEvent extends Component.Event {
+
+        private final List<Component.Event> events;
+
+        public ResizeBatchEvent(UI source, List<Component.Event> events) {
+            super(source);
+            this.events = Collections.unmodifiableList(events);
+        }
+
+        @Override
+        public UI getComponent() {
+            return (UI) super.getComponent();
+        }
+
+        /**
+         * The resize events in the order they were fired. The source of each
+         * event is the {@link ResizableCssLayout} that fired it.
+         */
+        public List<Component.Event> getEvents() {
+            return events;
+        }
+
+        /**
+         * The resizable layouts that fired any of the events, in the order of
+         * their first event.
+         */
+        public Set<ResizableCssLayout> getLayouts() {
+            Set<ResizableCssLayout> layouts = new LinkedHashSet<ResizableCssLayout>();
+            for (Component.Event event : events) {
+                layouts.add((ResizableCssLayout) event.getComponent());
+            }
+            return layouts;
+        }
+    }
+}
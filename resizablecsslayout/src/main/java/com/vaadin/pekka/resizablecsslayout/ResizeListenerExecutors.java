@@ -0,0 +1,149 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+
+/**
+ * Provides the default executor for the asynchronous resize listeners added
+ * with
+ * {@link ResizableCssLayout#addAsyncResizeEndListener(ResizableCssLayout.AsyncResizeListener)}
+ * . A virtual thread per task executor is used when the JVM supports virtual
+ * threads, otherwise a cached pool of daemon threads.
+ * <p>
+ * The executors created here are shut down when the last
+ * {@link VaadinService} that used them is destroyed, so they don't keep the
+ * web application class loader alive after undeploy. They are created again
+ * on the next use.
+ */
+public final class ResizeListenerExecutors {
+
+    private static volatile Executor defaultExecutor;
+
+    private static volatile ExecutorService createdExecutor;
+
+    private static volatile ScheduledExecutorService scheduler;
+
+    private static final Set<VaadinService> services = ConcurrentHashMap
+            .newKeySet();
+
+    private ResizeListenerExecutors() {
+    }
+
+    /**
+     * Returns the default executor, creating it on first use.
+     */
+    public static Executor getDefault() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (ResizeListenerExecutors.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    createdExecutor = createDefaultExecutor();
+                    executor = createdExecutor;
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Replaces the default executor for all the layouts that don't have an
+     * executor of their own. The previous default executor is not shut down.
+     */
+    public static void setDefault(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    /**
+     * Returns the single daemon thread scheduler for the resize verdict
+     * timeouts.
+     */
+    static ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService result = scheduler;
+        if (result == null) {
+            synchronized (ResizeListenerExecutors.class) {
+                result = scheduler;
+                if (result == null) {
+                    result = Executors.newSingleThreadScheduledExecutor(
+                            runnable -> {
+                                Thread thread = new Thread(runnable,
+                                        "resize-verdict-timeout");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+                    scheduler = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shuts down the executors when the service of the session is destroyed,
+     * unless other services still use them. Does nothing when the session
+     * has no service.
+     */
+    static void shutdownWith(VaadinSession session) {
+        VaadinService service = session != null ? session.getService() : null;
+        if (service != null && services.add(service)) {
+            service.addServiceDestroyListener(event -> {
+                services.remove(service);
+                if (services.isEmpty()) {
+                    shutdown();
+                }
+            });
+        }
+    }
+
+    /**
+     * Shuts down the default executor created by this class and the verdict
+     * timeout scheduler. An executor set with {@link #setDefault(Executor)}
+     * is left running, as it is owned by the application.
+     */
+    public static synchronized void shutdown() {
+        if (createdExecutor != null) {
+            createdExecutor.shutdown();
+            if (defaultExecutor == createdExecutor) {
+                defaultExecutor = null;
+            }
+            createdExecutor = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            // Java 21+, looked up reflectively to keep Java 8 compatibility
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            getLogger().log(Level.FINE,
+                    "Virtual threads not available, using a thread pool", e);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable,
+                    "resize-listener-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(ResizeListenerExecutors.class.getName());
+    }
+}
@@ -0,0 +1,307 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinServletService;
+
+/**
+ * Resize metrics of all the {@link ResizableCssLayout}s of a servlet,
+ * published as a {@link ResizeMetricsMXBean} with the object name
+ * <code>com.vaadin.pekka.resizablecsslayout:type=ResizeMetrics,name=&lt;servlet name&gt;</code>.
+ * The counters are striped {@link LongAdder}s, so that recording does not
+ * contend between sessions.
+ * <p>
+ * The metrics are disabled by default. They are enabled with the
+ * <code>resizeMetrics</code> init parameter of the servlet, or the
+ * <code>vaadin.resizeMetrics</code> system property, set to
+ * <code>true</code>. The MBean is unregistered when the service is destroyed.
+ */
+public class ResizeMetrics implements ResizeMetricsMXBean {
+
+    /**
+     * The deployment property that enables the metrics.
+     */
+    public static final String ENABLED_PROPERTY = "resizeMetrics";
+
+    private static final ResizeMetrics DISABLED = new ResizeMetrics();
+
+    private static final Map<VaadinService, ResizeMetrics> metrics = new ConcurrentHashMap<VaadinService, ResizeMetrics>();
+
+    private final LongAdder starts = new LongAdder();
+    private final LongAdder ends = new LongAdder();
+    private final LongAdder cancels = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder droppedCalls = new LongAdder();
+    private final Histogram dragDuration = new Histogram();
+    private final Histogram listenerTime = new Histogram();
+    private final Histogram acceptStateBytes = new Histogram();
+
+    protected ResizeMetrics() {
+    }
+
+    /**
+     * Returns the metrics of the given service, or <code>null</code> if the
+     * metrics are not enabled for it. The metrics are created and registered
+     * to the platform MBean server on the first call for the service.
+     */
+    public static ResizeMetrics get(VaadinService service) {
+        if (service == null) {
+            return null;
+        }
+        ResizeMetrics serviceMetrics = metrics.get(service);
+        if (serviceMetrics == null) {
+            serviceMetrics = metrics.computeIfAbsent(service,
+                    ResizeMetrics::create);
+        }
+        return serviceMetrics == DISABLED ? null : serviceMetrics;
+    }
+
+    private static ResizeMetrics create(VaadinService service) {
+        if (!Boolean.parseBoolean(service.getDeploymentConfiguration()
+                .getApplicationOrSystemProperty(ENABLED_PROPERTY, "false"))) {
+            return DISABLED;
+        }
+        ResizeMetrics serviceMetrics = new ResizeMetrics();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(
+                    "com.vaadin.pekka.resizablecsslayout:type=ResizeMetrics,name="
+                            + ObjectName.quote(getName(service)));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(serviceMetrics, name);
+            service.addServiceDestroyListener(event -> {
+                metrics.remove(service);
+                try {
+                    server.unregisterMBean(name);
+                } catch (JMException e) {
+                    // already unregistered, NOOP
+                }
+            });
+        } catch (JMException e) {
+            getLogger().log(Level.WARNING,
+                    "Could not register the resize metrics MBean", e);
+        }
+        return serviceMetrics;
+    }
+
+    private static String getName(VaadinService service) {
+        if (service instanceof VaadinServletService) {
+            return ((VaadinServletService) service).getServlet()
+                    .getServletName();
+        }
+        return service.getClass().getSimpleName() + "@"
+                + Integer.toHexString(System.identityHashCode(service));
+    }
+
+    void resizeStarted() {
+        starts.increment();
+    }
+
+    void resizeEnded(long dragNanos, long listenerNanos) {
+        ends.increment();
+        if (dragNanos >= 0) {
+            dragDuration.record(dragNanos);
+        }
+        listenerTime.record(listenerNanos);
+    }
+
+    void resizeCanceled() {
+        cancels.increment();
+    }
+
+    void resizeRejected() {
+        rejections.increment();
+    }
+
+    void callDropped() {
+        droppedCalls.increment();
+    }
+
+    void accepted(int stateBytes) {
+        acceptStateBytes.record(stateBytes);
+    }
+
+    @Override
+    public long getResizeStarts() {
+        return starts.sum();
+    }
+
+    @Override
+    public long getResizeEnds() {
+        return ends.sum();
+    }
+
+    @Override
+    public long getResizeCancels() {
+        return cancels.sum();
+    }
+
+    @Override
+    public long getResizeRejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getDroppedCalls() {
+        return droppedCalls.sum();
+    }
+
+    @Override
+    public long getDragDurationCount() {
+        return dragDuration.getCount();
+    }
+
+    @Override
+    public double getDragDurationMean() {
+        return dragDuration.getMean() / 1e6;
+    }
+
+    @Override
+    public double getDragDurationP99() {
+        return dragDuration.getPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double getDragDurationMax() {
+        return dragDuration.getMax() / 1e6;
+    }
+
+    @Override
+    public long getListenerTimeCount() {
+        return listenerTime.getCount();
+    }
+
+    @Override
+    public double getListenerTimeMean() {
+        return listenerTime.getMean() / 1e6;
+    }
+
+    @Override
+    public double getListenerTimeP99() {
+        return listenerTime.getPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double getListenerTimeMax() {
+        return listenerTime.getMax() / 1e6;
+    }
+
+    @Override
+    public long getAcceptStateBytesCount() {
+        return acceptStateBytes.getCount();
+    }
+
+    @Override
+    public double getAcceptStateBytesMean() {
+        return acceptStateBytes.getMean();
+    }
+
+    @Override
+    public double getAcceptStateBytesP99() {
+        return acceptStateBytes.getPercentile(99);
+    }
+
+    @Override
+    public double getAcceptStateBytesMax() {
+        return acceptStateBytes.getMax();
+    }
+
+    @Override
+    public void reset() {
+        starts.reset();
+        ends.reset();
+        cancels.reset();
+        rejections.reset();
+        droppedCalls.reset();
+        dragDuration.reset();
+        listenerTime.reset();
+        acceptStateBytes.reset();
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(ResizeMetrics.class.getName());
+    }
+
+    /**
+     * Histogram of non-negative values in power of two buckets, so that the
+     * percentiles are accurate to a factor of two.
+     */
+    private static class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Returns the upper bound of the bucket of the given percentile,
+         * capped to the maximum recorded value.
+         */
+        long getPercentile(int percentile) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    long upperBound = i == 0 ? 0 : (1L << i) - 1;
+                    return Math.min(upperBound, getMax());
+                }
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+}
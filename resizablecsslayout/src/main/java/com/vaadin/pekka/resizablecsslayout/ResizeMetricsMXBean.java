@@ -0,0 +1,51 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+/**
+ * JMX interface of the {@link ResizeMetrics} of a servlet. Durations are in
+ * milliseconds, percentiles are approximate.
+ * <p>
+ * Measuring the accept state bytes encodes the state changes of the layout
+ * once more for each accepted resize, on top of the encoding for the
+ * response.
+ */
+public interface ResizeMetricsMXBean {
+
+    long getResizeStarts();
+
+    long getResizeEnds();
+
+    long getResizeCancels();
+
+    long getResizeRejections();
+
+    long getDroppedCalls();
+
+    long getDragDurationCount();
+
+    double getDragDurationMean();
+
+    double getDragDurationP99();
+
+    double getDragDurationMax();
+
+    long getListenerTimeCount();
+
+    double getListenerTimeMean();
+
+    double getListenerTimeP99();
+
+    double getListenerTimeMax();
+
+    long getAcceptStateBytesCount();
+
+    double getAcceptStateBytesMean();
+
+    double getAcceptStateBytesP99();
+
+    double getAcceptStateBytesMax();
+
+    /**
+     * Resets all the counters and histograms.
+     */
+    void reset();
+}
@@ -0,0 +1,94 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.vaadin.ui.AbsoluteLayout;
+import com.vaadin.ui.HasComponents;
+
+/**
+ * Registry of the {@link ResizePositionStrategy}s by container class. A
+ * strategy registered for a class is used for its subclasses too, unless a
+ * strategy is registered for the subclass. The strategy for a container class
+ * is looked up once and cached.
+ * <p>
+ * An {@link AbsoluteLayoutPositionStrategy} is registered for
+ * {@link com.vaadin.ui.AbsoluteLayout} by default.
+ */
+public final class ResizePositionStrategies {
+
+    private static final ResizePositionStrategy NO_STRATEGY = (container,
+            positionHolder, resizeLocation, widthDelta, heightDelta) -> {
+        // NOOP
+    };
+
+    private static final Map<Class<?>, ResizePositionStrategy> strategies = new ConcurrentHashMap<Class<?>, ResizePositionStrategy>();
+
+    private static final Map<Class<?>, ResizePositionStrategy> resolved = new ConcurrentHashMap<Class<?>, ResizePositionStrategy>();
+
+    private static final AtomicInteger version = new AtomicInteger();
+
+    static {
+        register(AbsoluteLayout.class, new AbsoluteLayoutPositionStrategy());
+    }
+
+    private ResizePositionStrategies() {
+    }
+
+    /**
+     * Registers the strategy for the given container class, replacing any
+     * previously registered strategy for the class.
+     */
+    public static void register(Class<? extends HasComponents> containerType,
+            ResizePositionStrategy strategy) {
+        if (containerType == null || strategy == null) {
+            throw new IllegalArgumentException(
+                    "Container type and strategy can't be null");
+        }
+        strategies.put(containerType, strategy);
+        resolved.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Removes the strategy registered for the given container class.
+     */
+    public static void unregister(Class<? extends HasComponents> containerType) {
+        strategies.remove(containerType);
+        resolved.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns the version of the registry, increased on every change, so that
+     * strategies cached by the components can be looked up again.
+     */
+    static int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the strategy for the given container, or <code>null</code> if
+     * there is no strategy for it or any of its superclasses.
+     */
+    public static ResizePositionStrategy get(HasComponents container) {
+        if (container == null) {
+            return null;
+        }
+        ResizePositionStrategy strategy = resolved.computeIfAbsent(
+                container.getClass(), ResizePositionStrategies::find);
+        return strategy == NO_STRATEGY ? null : strategy;
+    }
+
+    private static ResizePositionStrategy find(Class<?> containerType) {
+        for (Class<?> type = containerType; type != null; type = type
+                .getSuperclass()) {
+            ResizePositionStrategy strategy = strategies.get(type);
+            if (strategy != null) {
+                return strategy;
+            }
+        }
+        return NO_STRATEGY;
+    }
+}
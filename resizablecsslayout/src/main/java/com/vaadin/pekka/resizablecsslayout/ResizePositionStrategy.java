@@ -0,0 +1,37 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.io.Serializable;
+
+import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.HasComponents;
+
+/**
+ * Strategy for moving a {@link ResizableCssLayout} inside its container when
+ * it has been resized from the top or the left side, so that the opposite
+ * side stays in place. Strategies are registered for container classes with
+ * {@link ResizePositionStrategies#register(Class, ResizePositionStrategy)}.
+ *
+ * @see AbsoluteLayoutPositionStrategy
+ */
+@FunctionalInterface
+public interface ResizePositionStrategy extends Serializable {
+
+    /**
+     * Updates the position of the resized component in the container.
+     *
+     * @param container
+     *            the container that positions the component
+     * @param positionHolder
+     *            the direct child of the container that holds the position,
+     *            either the resized layout or a custom component wrapping it
+     * @param resizeLocation
+     *            the location that was dragged
+     * @param widthDelta
+     *            the initial width minus the new width in pixels
+     * @param heightDelta
+     *            the initial height minus the new height in pixels
+     */
+    void updatePosition(HasComponents container, Component positionHolder,
+            ResizeLocation resizeLocation, int widthDelta, int heightDelta);
+}
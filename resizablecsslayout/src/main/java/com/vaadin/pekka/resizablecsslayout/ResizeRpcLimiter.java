@@ -0,0 +1,174 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.vaadin.server.VaadinSession;
+
+/**
+ * Per session limit for the resize RPC calls of all the
+ * {@link ResizableCssLayout}s in the session. Calls with sizes outside of the
+ * hard bounds are rejected. Each {@link Call} kind is rate limited with a
+ * token bucket of its own, so that a burst of progress calls can't drop the
+ * end of a resize, while a flood of end calls is still limited. Calls over
+ * the limit are dropped without firing any events, and counted in
+ * {@link #getDroppedCalls()}.
+ * <p>
+ * Use {@link #get(VaadinSession)} to get and configure the limiter of a
+ * session.
+ */
+@SuppressWarnings("serial")
+public class ResizeRpcLimiter implements Serializable {
+
+    /**
+     * The kinds of resize calls, each with a token bucket of its own.
+     */
+    enum Call {
+        START, END, CANCEL, PROGRESS, TRACE, FRAME_REPORT
+    }
+
+    /**
+     * Default number of calls of each kind that can be made in a burst.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * Default number of calls per second each bucket is refilled with.
+     */
+    public static final int DEFAULT_CALLS_PER_SECOND = 50;
+
+    /**
+     * Default maximum width and height in pixels accepted from the client.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    private static final AtomicLong totalDroppedCalls = new AtomicLong();
+
+    private int capacity = DEFAULT_CAPACITY;
+    private int callsPerSecond = DEFAULT_CALLS_PER_SECOND;
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private final double[] tokens = new double[Call.values().length];
+    private final long[] lastRefillNanos = new long[Call.values().length];
+    private long droppedCalls;
+
+    protected ResizeRpcLimiter() {
+        Arrays.fill(tokens, DEFAULT_CAPACITY);
+        Arrays.fill(lastRefillNanos, System.nanoTime());
+    }
+
+    /**
+     * Returns the limiter of the given session, creating it if needed. The
+     * session must be locked.
+     */
+    public static ResizeRpcLimiter get(VaadinSession session) {
+        ResizeRpcLimiter limiter = session
+                .getAttribute(ResizeRpcLimiter.class);
+        if (limiter == null) {
+            limiter = new ResizeRpcLimiter();
+            session.setAttribute(ResizeRpcLimiter.class, limiter);
+        }
+        return limiter;
+    }
+
+    /**
+     * Sets the rate limit for each kind of resize calls of the session.
+     *
+     * @param capacity
+     *            the number of calls of a kind that can be made in a burst
+     * @param callsPerSecond
+     *            the sustained number of calls of a kind per second
+     */
+    public synchronized void setRateLimit(int capacity, int callsPerSecond) {
+        if (capacity < 1 || callsPerSecond < 1) {
+            throw new IllegalArgumentException(
+                    "Capacity and calls per second must be positive");
+        }
+        this.capacity = capacity;
+        this.callsPerSecond = callsPerSecond;
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = Math.min(tokens[i], capacity);
+        }
+    }
+
+    /**
+     * Returns the number of calls of a kind that can be made in a burst.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the sustained number of calls of a kind per second.
+     */
+    public int getCallsPerSecond() {
+        return callsPerSecond;
+    }
+
+    /**
+     * Sets the maximum width and height in pixels accepted from the client,
+     * regardless of the resize limits of the layouts. Default is
+     * {@link #DEFAULT_MAX_SIZE}.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(
+                    "Max size can't be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the maximum width and height in pixels accepted from the
+     * client.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of calls dropped in this session.
+     */
+    public synchronized long getDroppedCalls() {
+        return droppedCalls;
+    }
+
+    /**
+     * Returns the number of calls dropped in all the sessions since the class
+     * was loaded.
+     */
+    public static long getTotalDroppedCalls() {
+        return totalDroppedCalls.get();
+    }
+
+    /**
+     * Takes a token from the bucket of the call kind for a call with the
+     * given size, or counts the call as dropped if there are no tokens left
+     * or the size is out of bounds.
+     *
+     * @return <code>true</code> if the call can be processed
+     */
+    synchronized boolean tryAcquire(Call call, int height, int width) {
+        if (height < 0 || width < 0 || height > maxSize || width > maxSize) {
+            return drop();
+        }
+        int bucket = call.ordinal();
+        long now = System.nanoTime();
+        // in double to not overflow with high rates or long idle times
+        tokens[bucket] = Math.min(capacity, tokens[bucket]
+                + (now - lastRefillNanos[bucket]) / 1e9 * callsPerSecond);
+        lastRefillNanos[bucket] = now;
+        if (tokens[bucket] < 1) {
+            return drop();
+        }
+        tokens[bucket]--;
+        return true;
+    }
+
+    private boolean drop() {
+        droppedCalls++;
+        totalDroppedCalls.incrementAndGet();
+        return false;
+    }
+}
@@ -0,0 +1,210 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+/**
+ * Timings of one resize, joined from the client and the server when resize
+ * tracing is enabled with {@link ResizableCssLayout#setResizeTracing(boolean)}.
+ * The client timings are measured in the browser from the pointer down and
+ * the server timings from receiving the resize end, so the two clocks are
+ * never compared. Durations are in milliseconds unless stated otherwise.
+ * <p>
+ * The trace is available from {@link ResizableCssLayout.ResizeEndEvent#getTrace()}
+ * with the client drag timings, and is complete when it is passed to the
+ * listeners added with
+ * {@link ResizableCssLayout#addResizeTraceListener(com.vaadin.server.SerializableConsumer)}.
+ */
+@SuppressWarnings("serial")
+public class ResizeTrace implements Serializable {
+
+    private final String connectorId;
+    private final int resizeId;
+    private final long timestamp;
+    private final int firstMoveDelay;
+    private final int dragDuration;
+    private final int moveEvents;
+    private final int frames;
+    private long endReceivedNanos;
+    private long listenerNanos = -1;
+    private long verdictNanos = -1;
+    private boolean autoAccept;
+    private Boolean accepted;
+    private int applyDelay = -1;
+
+    ResizeTrace(String connectorId, int resizeId, int firstMoveDelay,
+            int dragDuration, int moveEvents, int frames) {
+        this.connectorId = connectorId;
+        this.resizeId = resizeId;
+        this.firstMoveDelay = firstMoveDelay;
+        this.dragDuration = dragDuration;
+        this.moveEvents = moveEvents;
+        this.frames = frames;
+        timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the connector id of the resized layout, identifying the trace
+     * together with {@link #getResizeId()} within a UI.
+     */
+    public String getConnectorId() {
+        return connectorId;
+    }
+
+    /**
+     * Returns the id the client assigned to the resize.
+     */
+    public int getResizeId() {
+        return resizeId;
+    }
+
+    /**
+     * Returns the server time in epoch milliseconds when the client timings
+     * were received.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the time on the client from the pointer down to the first
+     * pointer move, or <code>-1</code> if the pointer was not moved.
+     */
+    public int getFirstMoveDelay() {
+        return firstMoveDelay;
+    }
+
+    /**
+     * Returns the time on the client from the pointer down to the pointer up.
+     */
+    public int getDragDuration() {
+        return dragDuration;
+    }
+
+    /**
+     * Returns the number of pointer move events on the client during the
+     * drag.
+     */
+    public int getMoveEvents() {
+        return moveEvents;
+    }
+
+    /**
+     * Returns the number of animation frames the client updated the drag in.
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the time in nanoseconds spent in the resize end listeners, or
+     * <code>-1</code> if they have not been run yet.
+     */
+    public long getListenerNanos() {
+        return listenerNanos;
+    }
+
+    /**
+     * Returns the time in nanoseconds from receiving the resize end to
+     * sending the verdict, including the listeners and any
+     * {@link ResizableCssLayout.ResizeVetoListener}s, or <code>-1</code> if
+     * the verdict has not been sent yet.
+     */
+    public long getVerdictNanos() {
+        return verdictNanos;
+    }
+
+    /**
+     * Returns whether the layout was in auto accept mode, in which case the
+     * client does not wait for the verdict.
+     */
+    public boolean isAutoAccept() {
+        return autoAccept;
+    }
+
+    /**
+     * Returns whether the resize was accepted, or <code>null</code> if the
+     * verdict has not been sent yet.
+     */
+    public Boolean getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Returns the time on the client from the pointer up to the verdict being
+     * applied, or <code>-1</code> if not reported yet.
+     */
+    public int getApplyDelay() {
+        return applyDelay;
+    }
+
+    /**
+     * Returns the part of {@link #getApplyDelay()} not spent on the server,
+     * i.e. the network round trip and the client processing, or
+     * <code>-1</code> if not known or the client did not wait for the
+     * verdict.
+     */
+    public double getNetworkTime() {
+        if (autoAccept || applyDelay < 0 || verdictNanos < 0) {
+            return -1;
+        }
+        return Math.max(0, applyDelay - verdictNanos / 1e6);
+    }
+
+    /**
+     * Returns whether all the timings of the trace are known.
+     */
+    public boolean isComplete() {
+        return accepted != null && applyDelay >= 0;
+    }
+
+    void endReceived() {
+        endReceivedNanos = System.nanoTime();
+    }
+
+    void listenersDone(long listenerNanos) {
+        this.listenerNanos = listenerNanos;
+    }
+
+    void verdictSent(boolean accepted, boolean autoAccept) {
+        this.accepted = accepted;
+        this.autoAccept = autoAccept;
+        verdictNanos = System.nanoTime() - endReceivedNanos;
+    }
+
+    void applied(int applyDelay) {
+        this.applyDelay = Math.max(0, applyDelay);
+    }
+
+    /**
+     * Returns the trace as a single line JSON object.
+     */
+    public String toJson() {
+        JsonObject json = Json.createObject();
+        json.put("connectorId", connectorId);
+        json.put("resizeId", resizeId);
+        json.put("timestamp", Instant.ofEpochMilli(timestamp).toString());
+        json.put("firstMoveDelay", firstMoveDelay);
+        json.put("dragDuration", dragDuration);
+        json.put("moveEvents", moveEvents);
+        json.put("frames", frames);
+        json.put("listenerMillis", listenerNanos < 0 ? -1
+                : listenerNanos / 1e6);
+        json.put("verdictMillis", verdictNanos < 0 ? -1 : verdictNanos / 1e6);
+        json.put("autoAccept", autoAccept);
+        if (accepted != null) {
+            json.put("accepted", accepted);
+        }
+        json.put("applyDelay", applyDelay);
+        json.put("networkMillis", getNetworkTime());
+        return json.toJson();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -0,0 +1,56 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import com.vaadin.server.SerializableConsumer;
+
+/**
+ * Resize trace listener that appends each {@link ResizeTrace} as a JSON line
+ * to a local file. The same writer can be shared by all the layouts, e.g.
+ * <p>
+ * <code>layout.addResizeTraceListener(new ResizeTraceFileWriter("/tmp/resize-traces.jsonl"));</code>
+ */
+@SuppressWarnings("serial")
+public class ResizeTraceFileWriter implements SerializableConsumer<ResizeTrace> {
+
+    private static final Object lock = new Object();
+
+    private final String fileName;
+
+    /**
+     * Creates a writer that appends to the given file, creating it if needed.
+     */
+    public ResizeTraceFileWriter(String fileName) {
+        if (fileName == null) {
+            throw new IllegalArgumentException("File name can't be null");
+        }
+        this.fileName = fileName;
+    }
+
+    /**
+     * Returns the name of the file the traces are appended to.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public void accept(ResizeTrace trace) {
+        synchronized (lock) {
+            try {
+                Files.write(Paths.get(fileName),
+                        Collections.singletonList(trace.toJson()),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
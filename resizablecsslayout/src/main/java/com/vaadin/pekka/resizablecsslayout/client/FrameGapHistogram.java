@@ -0,0 +1,56 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+/**
+ * Buckets of the histogram of the gaps between animation frames during resize
+ * drags, shared by the client side sampler and the server side component.
+ * Bucket <code>i</code> counts the gaps of at most
+ * {@link #getUpperLimit(int)} milliseconds that did not fit into the previous
+ * buckets, and the last bucket counts all the longer gaps.
+ */
+public final class FrameGapHistogram {
+
+    /**
+     * Frame budget in milliseconds at 60 frames per second.
+     */
+    public static final double FRAME_BUDGET_MILLIS = 1000.0 / 60;
+
+    private static final int[] UPPER_LIMITS_MILLIS = { 20, 33, 50, 100, 250 };
+
+    /**
+     * Number of buckets in the histogram.
+     */
+    public static final int BUCKETS = UPPER_LIMITS_MILLIS.length + 1;
+
+    private FrameGapHistogram() {
+    }
+
+    /**
+     * Returns the upper limit in milliseconds of the given bucket, or
+     * <code>-1</code> for the last bucket, which has no limit.
+     */
+    public static int getUpperLimit(int bucket) {
+        return bucket < UPPER_LIMITS_MILLIS.length ? UPPER_LIMITS_MILLIS[bucket]
+                : -1;
+    }
+
+    /**
+     * Returns the bucket for the given gap between two frames.
+     */
+    public static int getBucket(double gapMillis) {
+        for (int i = 0; i < UPPER_LIMITS_MILLIS.length; i++) {
+            if (gapMillis <= UPPER_LIMITS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return UPPER_LIMITS_MILLIS.length;
+    }
+
+    /**
+     * Returns the number of frames missed within the given gap between two
+     * frames, compared to {@link #FRAME_BUDGET_MILLIS}.
+     */
+    public static int getDroppedFrames(double gapMillis) {
+        return Math.max(0, (int) Math.round(gapMillis / FRAME_BUDGET_MILLIS)
+                - 1);
+    }
+}
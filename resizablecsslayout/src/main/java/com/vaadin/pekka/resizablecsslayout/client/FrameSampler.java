@@ -0,0 +1,166 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import com.google.gwt.user.client.Timer;
+import com.vaadin.client.ApplicationConnection;
+import com.vaadin.client.ComponentConnector;
+import com.vaadin.client.ConnectorMap;
+
+/**
+ * Samples the gaps between animation frames while resize drags are in
+ * progress, for all the {@link ResizableVCssLayout}s of one UI that have
+ * frame sampling enabled. The gaps are aggregated into a
+ * {@link FrameGapHistogram}, which is sent to the server at most once per
+ * {@value #REPORT_INTERVAL_MILLIS} milliseconds through the connector of the
+ * latest resized layout. The report is a delayed RPC, so it is sent with the
+ * next request instead of causing one.
+ * <p>
+ * Nothing is scheduled while no drag is sampled and there is nothing to
+ * report. The sampler of a UI is dropped when the last layout using it
+ * releases it.
+ */
+class FrameSampler {
+
+    private static final int REPORT_INTERVAL_MILLIS = 10000;
+
+    private static final Map<ApplicationConnection, FrameSampler> samplers = new HashMap<ApplicationConnection, FrameSampler>();
+
+    private final ApplicationConnection connection;
+    private int[] gapCounts = new int[FrameGapHistogram.BUCKETS];
+    private int droppedFrames;
+    private int maxGap;
+    private boolean pendingReport;
+    private int activeDrags;
+    private int layouts;
+    private double lastFrameTime;
+    private AnimationHandle frameHandle;
+    private ResizableVCssLayout reportingLayout;
+
+    private final AnimationCallback frameCallback = new AnimationCallback() {
+
+        @Override
+        public void execute(double timestamp) {
+            frameHandle = null;
+            if (activeDrags > 0) {
+                if (lastFrameTime >= 0) {
+                    record(timestamp - lastFrameTime);
+                }
+                lastFrameTime = timestamp;
+                frameHandle = AnimationScheduler.get().requestAnimationFrame(
+                        frameCallback);
+            }
+        }
+    };
+
+    private final Timer reportTimer = new Timer() {
+
+        @Override
+        public void run() {
+            report();
+        }
+    };
+
+    private FrameSampler(ApplicationConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the sampler of the UI of the given connection. The layouts
+     * using the sampler must {@link #retain()} and
+     * {@link #release(ResizableVCssLayout)} it.
+     */
+    static FrameSampler get(ApplicationConnection connection) {
+        FrameSampler sampler = samplers.get(connection);
+        if (sampler == null) {
+            sampler = new FrameSampler(connection);
+            samplers.put(connection, sampler);
+        }
+        return sampler;
+    }
+
+    /**
+     * Marks the sampler as used by one more layout.
+     */
+    void retain() {
+        layouts++;
+    }
+
+    /**
+     * Marks the sampler as no longer used by the given layout. When no
+     * layouts use it, any sampling and pending report are canceled and the
+     * sampler is dropped, so it doesn't keep the layouts of a closed UI.
+     */
+    void release(ResizableVCssLayout layout) {
+        if (reportingLayout == layout) {
+            reportingLayout = null;
+        }
+        if (layouts > 0 && --layouts == 0) {
+            reportTimer.cancel();
+            pendingReport = false;
+            if (frameHandle != null) {
+                frameHandle.cancel();
+                frameHandle = null;
+            }
+            activeDrags = 0;
+            samplers.remove(connection);
+        }
+    }
+
+    /**
+     * Starts sampling the frames for a drag of the given layout.
+     */
+    void start(ResizableVCssLayout layout) {
+        reportingLayout = layout;
+        if (activeDrags++ == 0) {
+            lastFrameTime = -1;
+            frameHandle = AnimationScheduler.get().requestAnimationFrame(
+                    frameCallback);
+        }
+    }
+
+    /**
+     * Stops sampling the frames for a drag started with
+     * {@link #start(ResizableVCssLayout)}.
+     */
+    void stop() {
+        if (activeDrags > 0 && --activeDrags == 0 && frameHandle != null) {
+            frameHandle.cancel();
+            frameHandle = null;
+        }
+    }
+
+    private void record(double gap) {
+        gapCounts[FrameGapHistogram.getBucket(gap)]++;
+        droppedFrames += FrameGapHistogram.getDroppedFrames(gap);
+        maxGap = Math.max(maxGap, (int) Math.round(gap));
+        if (!pendingReport) {
+            pendingReport = true;
+            reportTimer.schedule(REPORT_INTERVAL_MILLIS);
+        }
+    }
+
+    /**
+     * Sends the histogram through the connector of the latest resized layout
+     * and starts a new one. If the layout is no longer attached, the report
+     * is kept for the next drag.
+     */
+    private void report() {
+        ComponentConnector connector = reportingLayout == null ? null
+                : ConnectorMap.get(connection).getConnector(reportingLayout);
+        if (!(connector instanceof ResizableCssLayoutConnector)) {
+            pendingReport = false;
+            return;
+        }
+        ((ResizableCssLayoutConnector) connector).sendFrameReport(gapCounts,
+                droppedFrames, maxGap);
+        gapCounts = new int[FrameGapHistogram.BUCKETS];
+        droppedFrames = 0;
+        maxGap = 0;
+        pendingReport = false;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.event.shared.HasHandlers;
+
+/**
+ * Widget that implements this interface is a source of
+ * {@link ResizeProgressEvent} events. Separate from
+ * {@link HasResizableLayoutHandlers} so that its existing implementors keep
+ * compiling.
+ */
+public interface HasResizeProgressHandlers extends HasHandlers {
+
+    /**
+     * Adds a handler for {@link ResizeProgressEvent} to this widget.
+     */
+    HandlerRegistration addResizeProgressHandler(
+            ResizableLayoutHandler handler);
+}
@@ -4,6 +4,16 @@ import com.vaadin.shared.communication.ClientRpc;
 
 public interface ResizableCssLayoutClientRpc extends ClientRpc {
 
-    public void acceptResize(boolean acceptResize);
+    /**
+     * Accepts or cancels the resize with the given id. Verdicts for resizes
+     * that are no longer pending are ignored.
+     */
+    public void acceptResize(int resizeId, boolean acceptResize);
 
-}
\ No newline at end of file
+    /**
+     * Restores the size from the shared state, for resizes that the client
+     * has already applied in auto accept mode but the server did not.
+     */
+    public void restoreSize();
+
+}
@@ -1,8 +1,10 @@
 package com.vaadin.pekka.resizablecsslayout.client;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Widget;
 import com.vaadin.client.ServerConnector;
+import com.vaadin.client.annotations.OnStateChange;
 import com.vaadin.client.communication.RpcProxy;
 import com.vaadin.client.ui.AbstractComponentConnector;
 import com.vaadin.client.ui.AbstractHasComponentsConnector;
@@ -16,21 +18,51 @@ import com.vaadin.shared.ui.Connect;
 public class ResizableCssLayoutConnector extends CssLayoutConnector implements
         ResizableLayoutHandler {
 
+    /**
+     * How long the delayed resize start RPC waits for the resize to end before
+     * it is sent on its own.
+     */
+    private static final int RESIZE_START_FLUSH_DELAY_MILLIS = 250;
+
     ResizableCssLayoutServerRpc rpc = RpcProxy.create(
             ResizableCssLayoutServerRpc.class, this);
 
+    private final Timer resizeStartFlushTimer = new Timer() {
+
+        @Override
+        public void run() {
+            getConnection().getServerRpcQueue().flush();
+        }
+    };
+
     @Override
     public void init() {
         super.init();
         getWidget().addResizeStartHandler(this);
         getWidget().addResizeEndHandler(this);
+        getWidget().addResizeProgressHandler(this);
         getWidget().addResizeCancelHandler(this);
+        getWidget().addResizeAppliedHandler(new ResizeAppliedEvent.Handler() {
+
+            @Override
+            public void onResizeApplied(ResizeAppliedEvent event) {
+                rpc.onResizeApplied(event.getResizeId(),
+                        event.getApplyDelay());
+            }
+        });
         registerRpc(ResizableCssLayoutClientRpc.class,
                 new ResizableCssLayoutClientRpc() {
 
                     @Override
-                    public void acceptResize(boolean acceptResize) {
-                        getWidget().acceptResize(acceptResize);
+                    public void acceptResize(int resizeId,
+                            boolean acceptResize) {
+                        getWidget().acceptResize(resizeId, acceptResize);
+                    }
+
+                    @Override
+                    public void restoreSize() {
+                        // the state still has the size of the server
+                        updateComponentSize();
                     }
                 });
     }
@@ -77,18 +109,60 @@ public class ResizableCssLayoutConnector extends CssLayoutConnector implements
 
     @Override
     public void onResizeStart(ResizeStartEvent event) {
-        rpc.onResizeStart(event.getResizeLocation(), getWidget()
-                .getOffsetHeight(), getWidget().getOffsetWidth());
+        rpc.onResizeStart(getWidget().getResizeId(),
+                event.getResizeLocation(), getWidget().getOffsetHeight(),
+                getWidget().getOffsetWidth());
+        resizeStartFlushTimer.schedule(RESIZE_START_FLUSH_DELAY_MILLIS);
     }
 
     @Override
     public void onResizeEnd(ResizeEndEvent event) {
-        rpc.onResizeEnd(event.getHeight(), event.getWidth());
+        // the end RPC sends the pending start with it
+        resizeStartFlushTimer.cancel();
+        ResizeTiming timing = event.getTiming();
+        if (timing != null) {
+            rpc.onResizeTrace(getWidget().getResizeId(),
+                    timing.getFirstMoveDelay(), timing.getDragDuration(),
+                    timing.getMoveEvents(), timing.getFrames());
+        }
+        rpc.onResizeEnd(getWidget().getResizeId(), event.getHeight(),
+                event.getWidth(), event.getDragDuration());
+    }
+
+    @Override
+    public void onUnregister() {
+        resizeStartFlushTimer.cancel();
+        getWidget().setFrameSampler(null);
+        super.onUnregister();
+    }
+
+    @OnStateChange("frameSampling")
+    void updateFrameSampling() {
+        getWidget().setFrameSampler(
+                getState().frameSampling ? FrameSampler.get(getConnection())
+                        : null);
+    }
+
+    /**
+     * Sends the frame gap histogram of the UI with the next request.
+     */
+    void sendFrameReport(int[] gapCounts, int droppedFrames, int maxGap) {
+        rpc.onFrameReport(gapCounts, droppedFrames, maxGap);
+    }
+
+    @Override
+    public void onResizeProgress(ResizeProgressEvent event) {
+        rpc.onResizeProgress(getWidget().getResizeId(), event.getHeight(),
+                event.getWidth());
+        // progress is a delayed RPC, send it now or right after any pending
+        // request completes
+        getConnection().getServerRpcQueue().flush();
     }
 
     @Override
     public void onResizeCancel(ResizeCancelEvent resizeCancelEvent) {
-        rpc.onResizeCancel();
+        resizeStartFlushTimer.cancel();
+        rpc.onResizeCancel(getWidget().getResizeId());
     }
 
 }
@@ -1,12 +1,59 @@
 package com.vaadin.pekka.resizablecsslayout.client;
 
+import com.vaadin.shared.annotations.Delayed;
 import com.vaadin.shared.communication.ServerRpc;
 
+/**
+ * Every call carries the id of the resize it belongs to, increased by the
+ * client for each resize start, so that stale calls can be ignored.
+ */
 public interface ResizableCssLayoutServerRpc extends ServerRpc {
 
-    void onResizeStart(ResizeLocation resizeLocation, int height, int width);
+    /**
+     * Notifies the resize start. Delayed so that it is sent together with
+     * the end of a short resize, the connector flushes it for longer ones.
+     */
+    @Delayed
+    void onResizeStart(int resizeId, ResizeLocation resizeLocation,
+            int height, int width);
 
-    void onResizeEnd(int height, int width);
+    /**
+     * Notifies the resize end. The drag duration is measured by the client
+     * from the press to the release in milliseconds, as the start may reach
+     * the server only with the end, or <code>-1</code> if it is not known.
+     */
+    void onResizeEnd(int resizeId, int height, int width, int dragDuration);
 
-    void onResizeCancel();
+    /**
+     * Reports the current size during a resize. Only the latest pending
+     * invocation is sent to the server.
+     */
+    @Delayed(lastOnly = true)
+    void onResizeProgress(int resizeId, int height, int width);
+
+    void onResizeCancel(int resizeId);
+
+    /**
+     * Reports the client side timings of a resize when resize tracing is
+     * enabled. Delayed so that it is sent together with the resize end.
+     */
+    @Delayed
+    void onResizeTrace(int resizeId, int firstMoveDelay, int dragDuration,
+            int moveEvents, int frames);
+
+    /**
+     * Reports the time from the end of a resize to its verdict being applied
+     * on the client when resize tracing is enabled. Sent with the next
+     * request.
+     */
+    @Delayed
+    void onResizeApplied(int resizeId, int applyDelay);
+
+    /**
+     * Reports the histogram of the gaps between animation frames during the
+     * drags of all the layouts in the UI since the previous report, see
+     * {@link FrameGapHistogram}. Sent with the next request.
+     */
+    @Delayed
+    void onFrameReport(int[] gapCounts, int droppedFrames, int maxGap);
 }
@@ -1,7 +1,5 @@
 package com.vaadin.pekka.resizablecsslayout.client;
 
-import java.util.ArrayList;
-
 import com.vaadin.shared.annotations.DelegateToWidget;
 import com.vaadin.shared.annotations.NoLayout;
 
@@ -26,9 +24,89 @@ public class ResizableCssLayoutState extends
 
     @NoLayout
     @DelegateToWidget
-    public ArrayList<ResizeLocation> resizeLocations = new ArrayList<ResizeLocation>();
+    public boolean optimisticResize;
+
+    /**
+     * Bitmask of the {@link ResizeLocation}s that are available for resize,
+     * see {@link ResizeLocation#getMask()}. Defaults to all locations.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int resizeLocations = ResizeLocation.ALL_MASK;
 
     @NoLayout
     @DelegateToWidget
     public boolean keepAspectRatio;
+
+    @NoLayout
+    @DelegateToWidget
+    public boolean transformDragOverlay;
+
+    /**
+     * Minimum interval in milliseconds between resize progress reports during
+     * a resize. Negative value disables progress reporting. Defaults to -1.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int resizeProgressInterval = -1;
+
+    /**
+     * Minimum width in pixels for a resize. Defaults to 0.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int minResizeWidth;
+
+    /**
+     * Maximum width in pixels for a resize, negative for no maximum. Defaults
+     * to -1.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int maxResizeWidth = -1;
+
+    /**
+     * Minimum height in pixels for a resize. Defaults to 0.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int minResizeHeight;
+
+    /**
+     * Maximum height in pixels for a resize, negative for no maximum. Defaults
+     * to -1.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int maxResizeHeight = -1;
+
+    /**
+     * Step in pixels that the resized width and height are rounded to.
+     * Defaults to 1.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int resizeStep = 1;
+
+    /**
+     * Distance in pixels the pointer has to move before a drag counts as a
+     * resize. Defaults to 3.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public int dragThreshold = 3;
+
+    /**
+     * Whether the client reports the timings of each resize to the server.
+     */
+    @NoLayout
+    @DelegateToWidget
+    public boolean resizeTracing;
+
+    /**
+     * Whether the client samples the gaps between animation frames during the
+     * drags and reports them to the server.
+     */
+    @NoLayout
+    public boolean frameSampling;
 }
\ No newline at end of file
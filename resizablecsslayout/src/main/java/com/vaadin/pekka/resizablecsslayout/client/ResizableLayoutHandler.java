@@ -15,6 +15,16 @@ public interface ResizableLayoutHandler extends EventHandler {
      */
     void onResizeEnd(ResizeEndEvent event);
 
+    /**
+     * Fired during the resize when resize progress reporting is enabled (
+     * {@link ResizableVCssLayout#setResizeProgressInterval(int)}). Does
+     * nothing by default, so that existing handlers don't need to implement
+     * it.
+     */
+    default void onResizeProgress(ResizeProgressEvent event) {
+        // NOOP
+    }
+
     /**
      * Fired when the user cancels the resize by pressing the ESC key.
      */
@@ -1,37 +1,44 @@
 package com.vaadin.pekka.resizablecsslayout.client;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.Map;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.dom.client.DivElement;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
-import com.google.gwt.dom.client.EventTarget;
 import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.Event.NativePreviewEvent;
 import com.google.gwt.user.client.Event.NativePreviewHandler;
-import com.google.gwt.user.client.EventListener;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.Window;
 import com.vaadin.client.WidgetUtil;
 import com.vaadin.client.ui.VCssLayout;
 
 /**
  * Widget that wraps CssLayout providing resizability from all sides and
- * corners. Resizing is started on
- * {@link com.google.gwt.user.client.Event#ONMOUSEDOWN} on one of the locations
- * ({@link ResizeLocation}) and ended on
- * {@link com.google.gwt.user.client.Event#ONMOUSEUP}.
+ * corners. Resizing is started on pointer down (or
+ * {@link com.google.gwt.user.client.Event#ONMOUSEDOWN} on browsers without
+ * Pointer Events) on one of the locations ({@link ResizeLocation}) and ended
+ * on pointer up. The pointer events for all the resizable widgets on the page
+ * are handled by a single {@link ResizeEventDispatcher}.
  * <p>
  * If the component is in {@link #isAutoAcceptResize()} mode, the resize is done
  * immediately. If not, then resize must be accepted or canceled using
- * {@link #acceptResize(boolean)}.
+ * {@link #acceptResize(boolean)}. In {@link #isOptimisticResize()} mode the
+ * resize is applied immediately anyway and only rolled back if it is canceled.
  * <p>
  * Boundaries for the resize can be specified by using
  * {@link #setResizeBoundaryElement(com.google.gwt.dom.client.Element)}.
@@ -39,13 +46,51 @@ import com.vaadin.client.ui.VCssLayout;
  * The size of the resizable areas can be specified with
  * {@link #setResizeLocationSize(int)}. The areas are a half outside of the
  * component and a half inside the component.
+ * <p>
+ * While dragging, only the latest pointer position is recorded for each mouse
+ * move and the drag overlay is updated at most once per animation frame. The
+ * geometry of the boundary element is read once when the resize starts and
+ * only read again if the boundary is scrolled or the window is resized.
+ * <p>
+ * The resize location elements and their listeners are only created when the
+ * component is made resizable for the first time, and released again if the
+ * component stays non-resizable for {@value #RESIZE_DOM_RELEASE_DELAY_MILLIS}
+ * milliseconds.
+ * <p>
+ * In {@link #setTransformDragOverlay(boolean)} mode the drag overlay keeps its
+ * start size during the drag and the new size is shown with a CSS scale
+ * transform, so that dragging does not cause layout or paint.
+ * <p>
+ * When {@link #setResizeProgressInterval(int)} is not negative,
+ * {@link ResizeProgressEvent}s are fired during the drag at most once per
+ * interval.
+ * <p>
+ * The size is limited during the drag with the minimum and maximum sizes and
+ * the resize step, see {@link ResizeConstraints}.
+ * <p>
+ * In {@link #setResizeTracing(boolean)} mode the {@link ResizeEndEvent} carries
+ * the client side {@link ResizeTiming}s of the resize and a
+ * {@link ResizeAppliedEvent} is fired when the verdict has been applied.
+ * <p>
+ * When a {@link FrameSampler} is set, the gaps between animation frames are
+ * sampled during the drags.
  */
 public class ResizableVCssLayout extends VCssLayout implements
-        HasResizableLayoutHandlers {
+        HasResizableLayoutHandlers, HasResizeProgressHandlers {
 
     private static final String RESIZABLE_STYLE_NAME = "resizable";
     private static final int DEFAULT_DRAG_SIZE_PIXELS = 10;
-    private static final String UNUSED_STYLE_NAME = "unused";
+    static final String UNUSED_STYLE_NAME = "unused";
+    static final String TOP_LEFT_CLASS_NAME = "tlc";
+    static final String TOP_CLASS_NAME = "ts";
+    static final String TOP_RIGHT_CLASS_NAME = "trc";
+    static final String RIGHT_CLASS_NAME = "rs";
+    static final String BOTTOM_RIGHT_CLASS_NAME = "brc";
+    static final String BOTTOM_CLASS_NAME = "bs";
+    static final String BOTTOM_LEFT_CLASS_NAME = "blc";
+    static final String LEFT_CLASS_NAME = "ls";
+    private static final int RESIZE_DOM_RELEASE_DELAY_MILLIS = 5000;
+    private static final String TRANSFORM_OVERLAY_STYLE_NAME = "transform";
     private DivElement topLeftCorner;
     private DivElement topRightCorner;
     private DivElement bottomLeftCorner;
@@ -56,13 +101,26 @@ public class ResizableVCssLayout extends VCssLayout implements
     private DivElement leftSide;
     private DivElement dragOverlayElement;
 
-    private final ResizeHandler resizeHandler;
+    private ResizeHandler resizeHandler;
+    private boolean dispatcherRegistered;
+    private Timer resizeDOMReleaseTimer;
     private boolean resizable;
     private boolean autoAcceptResize = true;
+    private boolean optimisticResize;
     private boolean keepAspectRatio;
+    private boolean transformDragOverlay;
+    private int resizeProgressInterval = -1;
+    private int minResizeWidth;
+    private int maxResizeWidth = -1;
+    private int minResizeHeight;
+    private int maxResizeHeight = -1;
+    private int resizeStep = 1;
+    private int dragThreshold = 3;
+    private boolean resizeTracing;
+    private FrameSampler frameSampler;
     private Element boundaryElement;
     private int dragSizePixels;
-    private HashSet<ResizeLocation> resizeLocations = new HashSet<ResizeLocation>();
+    private int resizeLocations = ResizeLocation.ALL_MASK;
 
     @SuppressWarnings("serial")
     private static final Map<ResizeLocation, String> locationToCursorMap = new HashMap<ResizeLocation, String>() {
@@ -80,32 +138,124 @@ public class ResizableVCssLayout extends VCssLayout implements
 
     public ResizableVCssLayout() {
         super();
-        resizeHandler = new ResizeHandler();
+        dragSizePixels = DEFAULT_DRAG_SIZE_PIXELS;
+    }
+
+    /**
+     * Returns whether the resize location elements currently exist.
+     */
+    protected boolean isResizeDOMInitialized() {
+        return topSide != null;
+    }
+
+    /**
+     * Creates the resize location elements and their listeners, unless they
+     * exist already.
+     */
+    private void ensureResizeDOM() {
+        if (!isResizeDOMInitialized()) {
+            if (resizeHandler == null) {
+                resizeHandler = new ResizeHandler();
+            }
+            initDOM();
+            updateDispatcherRegistration(isAttached());
+            applyResizeLocationSize();
+            setupResizeLocations();
+        }
+    }
+
+    /**
+     * Releases the resize location elements and their listeners, unless a
+     * resize is in progress or pending. They are created again when the
+     * component is made resizable.
+     */
+    private void releaseResizeDOM() {
+        if (isResizeDOMInitialized() && !resizable
+                && !resizeHandler.isActive()) {
+            topLeftCorner = null;
+            topRightCorner = null;
+            bottomLeftCorner = null;
+            bottomRightCorner = null;
+            topSide = null;
+            rightSide = null;
+            bottomSide = null;
+            leftSide = null;
+            dragOverlayElement = null;
+            updateDispatcherRegistration(isAttached());
+        }
+    }
+
+    /**
+     * Registers this widget to the {@link ResizeEventDispatcher} while it is
+     * attached and has the resize location elements, and unregisters it
+     * otherwise.
+     */
+    private void updateDispatcherRegistration(boolean attached) {
+        boolean register = attached && isResizeDOMInitialized();
+        if (register != dispatcherRegistered) {
+            dispatcherRegistered = register;
+            if (register) {
+                ResizeEventDispatcher.get().register(this);
+            } else {
+                ResizeEventDispatcher.get().unregister(this);
+            }
+        }
+    }
+
+    @Override
+    protected void onLoad() {
+        super.onLoad();
+        updateDispatcherRegistration(true);
+    }
+
+    @Override
+    protected void onUnload() {
+        if (resizeHandler != null && resizeHandler.isResizing()) {
+            // no pointer events will be received for the resize any more
+            resizeHandler.cancelResize();
+        }
+        updateDispatcherRegistration(false);
+        super.onUnload();
+    }
+
+    private void scheduleResizeDOMRelease() {
+        if (resizeDOMReleaseTimer == null) {
+            resizeDOMReleaseTimer = new Timer() {
+
+                @Override
+                public void run() {
+                    releaseResizeDOM();
+                }
+            };
+        }
+        resizeDOMReleaseTimer.schedule(RESIZE_DOM_RELEASE_DELAY_MILLIS);
+    }
 
-        initDOM();
-        initListeners();
-        setResizeLocationSize(DEFAULT_DRAG_SIZE_PIXELS);
+    private void cancelResizeDOMRelease() {
+        if (resizeDOMReleaseTimer != null) {
+            resizeDOMReleaseTimer.cancel();
+        }
     }
 
     private void initDOM() {
         Document document = Document.get();
         topLeftCorner = document.createDivElement();
-        topLeftCorner.addClassName("tlc");
+        topLeftCorner.addClassName(TOP_LEFT_CLASS_NAME);
         topRightCorner = document.createDivElement();
-        topRightCorner.addClassName("trc");
+        topRightCorner.addClassName(TOP_RIGHT_CLASS_NAME);
         bottomLeftCorner = document.createDivElement();
-        bottomLeftCorner.addClassName("blc");
+        bottomLeftCorner.addClassName(BOTTOM_LEFT_CLASS_NAME);
         bottomRightCorner = document.createDivElement();
-        bottomRightCorner.addClassName("brc");
+        bottomRightCorner.addClassName(BOTTOM_RIGHT_CLASS_NAME);
 
         topSide = document.createDivElement();
-        topSide.addClassName("ts");
+        topSide.addClassName(TOP_CLASS_NAME);
         rightSide = document.createDivElement();
-        rightSide.addClassName("rs");
+        rightSide.addClassName(RIGHT_CLASS_NAME);
         bottomSide = document.createDivElement();
-        bottomSide.addClassName("bs");
+        bottomSide.addClassName(BOTTOM_CLASS_NAME);
         leftSide = document.createDivElement();
-        leftSide.addClassName("ls");
+        leftSide.addClassName(LEFT_CLASS_NAME);
 
         dragOverlayElement = document.createDivElement();
         dragOverlayElement.addClassName("drag-overlay");
@@ -117,54 +267,47 @@ public class ResizableVCssLayout extends VCssLayout implements
         bottomSide.appendChild(bottomRightCorner);
     }
 
-    private void initListeners() {
-        Event.sinkEvents(topLeftCorner, Event.MOUSEEVENTS);
-        Event.sinkEvents(topRightCorner, Event.MOUSEEVENTS);
-        Event.sinkEvents(bottomLeftCorner, Event.MOUSEEVENTS);
-        Event.sinkEvents(bottomRightCorner, Event.MOUSEEVENTS);
-        Event.sinkEvents(topSide, Event.MOUSEEVENTS);
-        Event.sinkEvents(rightSide, Event.MOUSEEVENTS);
-        Event.sinkEvents(bottomSide, Event.MOUSEEVENTS);
-        Event.sinkEvents(leftSide, Event.MOUSEEVENTS);
-    }
-
     protected void setupResizeLocations() {
-        if (resizeLocations.contains(ResizeLocation.TOP_LEFT)) {
+        if (!isResizeDOMInitialized()) {
+            // applied when the resize locations are created
+            return;
+        }
+        if (ResizeLocation.TOP_LEFT.isIn(resizeLocations)) {
             enableResizeLocation(topLeftCorner);
         } else {
             disableResizeLocation(topLeftCorner);
         }
-        if (resizeLocations.contains(ResizeLocation.TOP_RIGHT)) {
+        if (ResizeLocation.TOP_RIGHT.isIn(resizeLocations)) {
             enableResizeLocation(topRightCorner);
         } else {
             disableResizeLocation(topRightCorner);
         }
-        if (resizeLocations.contains(ResizeLocation.BOTTOM_RIGHT)) {
+        if (ResizeLocation.BOTTOM_RIGHT.isIn(resizeLocations)) {
             enableResizeLocation(bottomRightCorner);
         } else {
             disableResizeLocation(bottomRightCorner);
         }
-        if (resizeLocations.contains(ResizeLocation.BOTTOM_LEFT)) {
+        if (ResizeLocation.BOTTOM_LEFT.isIn(resizeLocations)) {
             enableResizeLocation(bottomLeftCorner);
         } else {
             disableResizeLocation(bottomLeftCorner);
         }
-        if (resizeLocations.contains(ResizeLocation.TOP)) {
+        if (ResizeLocation.TOP.isIn(resizeLocations)) {
             enableResizeLocation(topSide);
         } else {
             disableResizeLocation(topSide);
         }
-        if (resizeLocations.contains(ResizeLocation.LEFT)) {
+        if (ResizeLocation.LEFT.isIn(resizeLocations)) {
             enableResizeLocation(leftSide);
         } else {
             disableResizeLocation(leftSide);
         }
-        if (resizeLocations.contains(ResizeLocation.RIGHT)) {
+        if (ResizeLocation.RIGHT.isIn(resizeLocations)) {
             enableResizeLocation(rightSide);
         } else {
             disableResizeLocation(rightSide);
         }
-        if (resizeLocations.contains(ResizeLocation.BOTTOM)) {
+        if (ResizeLocation.BOTTOM.isIn(resizeLocations)) {
             enableResizeLocation(bottomSide);
         } else {
             disableResizeLocation(bottomSide);
@@ -172,12 +315,10 @@ public class ResizableVCssLayout extends VCssLayout implements
     }
 
     private void enableResizeLocation(Element element) {
-        Event.setEventListener(element, resizeHandler);
         element.removeClassName(UNUSED_STYLE_NAME);
     }
 
     private void disableResizeLocation(Element element) {
-        Event.setEventListener(element, null);
         element.addClassName(UNUSED_STYLE_NAME);
     }
 
@@ -188,6 +329,8 @@ public class ResizableVCssLayout extends VCssLayout implements
         if (this.resizable != resizable) {
             this.resizable = resizable;
             if (resizable) {
+                cancelResizeDOMRelease();
+                ensureResizeDOM();
                 getElement().appendChild(topSide);
                 getElement().appendChild(leftSide);
                 getElement().appendChild(rightSide);
@@ -199,6 +342,7 @@ public class ResizableVCssLayout extends VCssLayout implements
                 getElement().removeChild(rightSide);
                 getElement().removeChild(bottomSide);
                 getElement().removeClassName(RESIZABLE_STYLE_NAME);
+                scheduleResizeDOMRelease();
             }
         }
     }
@@ -211,34 +355,65 @@ public class ResizableVCssLayout extends VCssLayout implements
     }
 
     /**
-     * Set the used resize locations.
+     * Set the used resize locations as a bitmask, see
+     * {@link ResizeLocation#getMask()}.
      */
-    public void setResizeLocations(ArrayList<ResizeLocation> resizeLocations) {
-        this.resizeLocations.clear();
-        this.resizeLocations.addAll(resizeLocations);
-        setupResizeLocations();
+    public void setResizeLocations(int resizeLocations) {
+        if (this.resizeLocations != resizeLocations) {
+            this.resizeLocations = resizeLocations;
+            setupResizeLocations();
+        }
     }
 
     /**
-     * Returns the used resize locations.
+     * Returns the used resize locations as a bitmask.
      */
-    public HashSet<ResizeLocation> getResizeLocations() {
+    public int getResizeLocations() {
         return resizeLocations;
     }
 
     /**
-     * Accept or cancel the pending resize. This only has effect if the
-     * component is not in auto accept resize mode (
-     * {@link #isAutoAcceptResize()} and if the current resize is pending.
+     * Accept or cancel the pending resize with the given id. This only has
+     * effect if the component is not in auto accept resize mode (
+     * {@link #isAutoAcceptResize()} and if the resize is still pending.
+     * Verdicts for unknown or already decided resizes are ignored.
+     *
+     * @see #getResizeId()
+     */
+    public void acceptResize(int resizeId, boolean accept) {
+        if (resizeHandler != null) {
+            resizeHandler.acceptResize(resizeId, accept);
+        }
+    }
+
+    /**
+     * Accept or cancel the oldest pending resize.
+     *
+     * @deprecated use {@link #acceptResize(int, boolean)}, which ignores
+     *             stale verdicts
      */
+    @Deprecated
     public void acceptResize(boolean accept) {
-        resizeHandler.acceptResize(accept);
+        if (resizeHandler != null) {
+            resizeHandler.acceptResize(resizeHandler.getOldestPendingId(),
+                    accept);
+        }
+    }
+
+    /**
+     * Returns the id of the latest resize, increased for each resize start.
+     * The resize events are fired with this id set to the resize they belong
+     * to.
+     */
+    public int getResizeId() {
+        return resizeHandler != null ? resizeHandler.resizeId : 0;
     }
 
     /**
      * Trigger the auto accept resize mode. When set to <code>true</code>, the
      * component will resize automatically. When set to <code>false</code> the
-     * user can accept or cancel the resize with {@link #acceptResize(boolean).
+     * user can accept or cancel the resize with
+     * {@link #acceptResize(int, boolean)}.
      * <p>
      * Default value is <code>true</code>.
 
@@ -256,6 +431,34 @@ public class ResizableVCssLayout extends VCssLayout implements
         return autoAcceptResize;
     }
 
+    /**
+     * Trigger the optimistic resize mode. When set to <code>true</code> and
+     * the component is not in auto accept resize mode, the new size is
+     * applied immediately when the resize ends, and the previous size is
+     * restored if the resize is canceled with {@link #acceptResize(boolean)}.
+     * A new resize can be started while the previous ones are still pending,
+     * otherwise only once the previous resize has been accepted or canceled.
+     * A resize waiting for acceptance when the mode is turned on is applied
+     * right away.
+     * <p>
+     * Default value is <code>false</code>.
+     */
+    public void setOptimisticResize(boolean optimisticResize) {
+        this.optimisticResize = optimisticResize;
+        if (optimisticResize && resizeHandler != null) {
+            resizeHandler.applyWaitingOptimistically();
+        }
+    }
+
+    /**
+     * Is the component in optimistic resize mode.
+     *
+     * @see #setOptimisticResize(boolean)
+     */
+    public boolean isOptimisticResize() {
+        return optimisticResize;
+    }
+
     /**
      * Set the component to keep or not to keep the original (current) aspect
      * ratio when the user starts the resizing.
@@ -276,6 +479,192 @@ public class ResizableVCssLayout extends VCssLayout implements
         return keepAspectRatio;
     }
 
+    /**
+     * Set the drag overlay to show the new size with a CSS transform instead
+     * of changing its size. The overlay is kept at its start size on its own
+     * compositing layer and scaled during the drag, which avoids layout and
+     * paint of the resized content on every frame. The new size is calculated
+     * when the resize ends. Note that the overlay border is scaled too.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public void setTransformDragOverlay(boolean transformDragOverlay) {
+        this.transformDragOverlay = transformDragOverlay;
+    }
+
+    /**
+     * Does the drag overlay show the new size with a CSS transform.
+     *
+     * @see #setTransformDragOverlay(boolean)
+     */
+    public boolean isTransformDragOverlay() {
+        return transformDragOverlay;
+    }
+
+    /**
+     * Set the minimum interval in milliseconds between
+     * {@link ResizeProgressEvent}s during a resize. <code>0</code> fires an
+     * event on every animation frame where the size changes, and a negative
+     * value disables the events.
+     * <p>
+     * Default is <code>-1</code>.
+     */
+    public void setResizeProgressInterval(int resizeProgressInterval) {
+        this.resizeProgressInterval = resizeProgressInterval;
+    }
+
+    /**
+     * Returns the minimum interval in milliseconds between
+     * {@link ResizeProgressEvent}s, or a negative value if they are disabled.
+     *
+     * @see #setResizeProgressInterval(int)
+     */
+    public int getResizeProgressInterval() {
+        return resizeProgressInterval;
+    }
+
+    /**
+     * Set the minimum width in pixels for a resize.
+     * <p>
+     * Default is <code>0</code>.
+     */
+    public void setMinResizeWidth(int minResizeWidth) {
+        this.minResizeWidth = minResizeWidth;
+    }
+
+    /**
+     * Returns the minimum width in pixels for a resize.
+     */
+    public int getMinResizeWidth() {
+        return minResizeWidth;
+    }
+
+    /**
+     * Set the maximum width in pixels for a resize, negative for no maximum.
+     * <p>
+     * Default is <code>-1</code>.
+     */
+    public void setMaxResizeWidth(int maxResizeWidth) {
+        this.maxResizeWidth = maxResizeWidth;
+    }
+
+    /**
+     * Returns the maximum width in pixels for a resize, or a negative value
+     * if there is no maximum.
+     */
+    public int getMaxResizeWidth() {
+        return maxResizeWidth;
+    }
+
+    /**
+     * Set the minimum height in pixels for a resize.
+     * <p>
+     * Default is <code>0</code>.
+     */
+    public void setMinResizeHeight(int minResizeHeight) {
+        this.minResizeHeight = minResizeHeight;
+    }
+
+    /**
+     * Returns the minimum height in pixels for a resize.
+     */
+    public int getMinResizeHeight() {
+        return minResizeHeight;
+    }
+
+    /**
+     * Set the maximum height in pixels for a resize, negative for no maximum.
+     * <p>
+     * Default is <code>-1</code>.
+     */
+    public void setMaxResizeHeight(int maxResizeHeight) {
+        this.maxResizeHeight = maxResizeHeight;
+    }
+
+    /**
+     * Returns the maximum height in pixels for a resize, or a negative value
+     * if there is no maximum.
+     */
+    public int getMaxResizeHeight() {
+        return maxResizeHeight;
+    }
+
+    /**
+     * Set the step in pixels that the width and height are rounded to during
+     * a resize.
+     * <p>
+     * Default is <code>1</code>.
+     */
+    public void setResizeStep(int resizeStep) {
+        this.resizeStep = resizeStep;
+    }
+
+    /**
+     * Returns the step in pixels that the width and height are rounded to
+     * during a resize.
+     */
+    public int getResizeStep() {
+        return resizeStep;
+    }
+
+    /**
+     * Set the distance in pixels the pointer has to move before a drag counts
+     * as a resize. The resize start event is fired only after that.
+     * <p>
+     * Default is <code>3</code>.
+     */
+    public void setDragThreshold(int dragThreshold) {
+        this.dragThreshold = dragThreshold;
+    }
+
+    /**
+     * Returns the drag threshold in pixels.
+     */
+    public int getDragThreshold() {
+        return dragThreshold;
+    }
+
+    /**
+     * Set whether the timings of each resize are recorded. The timings are
+     * available from {@link ResizeEndEvent#getTiming()}, and a
+     * {@link ResizeAppliedEvent} is fired when the verdict for the resize has
+     * been applied.
+     * <p>
+     * Default is <code>false</code>.
+     */
+    public void setResizeTracing(boolean resizeTracing) {
+        this.resizeTracing = resizeTracing;
+    }
+
+    /**
+     * Are the timings of each resize recorded.
+     *
+     * @see #setResizeTracing(boolean)
+     */
+    public boolean isResizeTracing() {
+        return resizeTracing;
+    }
+
+    /**
+     * Sets the sampler for the animation frames during the drags, or
+     * <code>null</code> to not sample them. Any sampling in progress is
+     * stopped, and the previous sampler is released.
+     */
+    void setFrameSampler(FrameSampler frameSampler) {
+        if (resizeHandler != null) {
+            resizeHandler.stopFrameSampling();
+        }
+        if (this.frameSampler != frameSampler) {
+            if (this.frameSampler != null) {
+                this.frameSampler.release(this);
+            }
+            if (frameSampler != null) {
+                frameSampler.retain();
+            }
+            this.frameSampler = frameSampler;
+        }
+    }
+
     /**
      * Set the limiting boundary element for the resize. E.g. the parent element
      * of this component.
@@ -302,6 +691,13 @@ public class ResizableVCssLayout extends VCssLayout implements
     public void setResizeLocationSize(int resizeLocationSize) {
         if (dragSizePixels != resizeLocationSize) {
             dragSizePixels = resizeLocationSize;
+            applyResizeLocationSize();
+        }
+    }
+
+    private void applyResizeLocationSize() {
+        if (isResizeDOMInitialized()) {
+            int resizeLocationSize = dragSizePixels;
             topLeftCorner.getStyle().setHeight(resizeLocationSize, Unit.PX);
             topLeftCorner.getStyle().setWidth(resizeLocationSize, Unit.PX);
             topRightCorner.getStyle().setHeight(resizeLocationSize, Unit.PX);
@@ -343,14 +739,42 @@ public class ResizableVCssLayout extends VCssLayout implements
         return addHandler(handler, ResizeEndEvent.getType());
     }
 
+    @Override
+    public HandlerRegistration addResizeProgressHandler(
+            ResizableLayoutHandler handler) {
+        return addHandler(handler, ResizeProgressEvent.getType());
+    }
+
     @Override
     public HandlerRegistration addResizeCancelHandler(
             ResizableLayoutHandler handler) {
         return addHandler(handler, ResizeCancelEvent.getType());
     }
 
+    /**
+     * Adds a handler for {@link ResizeAppliedEvent}s, fired only in
+     * {@link #setResizeTracing(boolean)} mode.
+     */
+    public HandlerRegistration addResizeAppliedHandler(
+            ResizeAppliedEvent.Handler handler) {
+        return addHandler(handler, ResizeAppliedEvent.getType());
+    }
+
     protected void fireResizeEnd(int clientWidth, int clientHeight) {
-        fireEvent(new ResizeEndEvent(clientHeight, clientWidth));
+        ResizeTiming timing = null;
+        int dragDuration = -1;
+        if (resizeHandler != null) {
+            dragDuration = resizeHandler.getDragDuration();
+            if (resizeTracing) {
+                timing = resizeHandler.getTiming();
+            }
+        }
+        fireEvent(new ResizeEndEvent(clientHeight, clientWidth, dragDuration,
+                timing));
+    }
+
+    protected void fireResizeProgress(int clientWidth, int clientHeight) {
+        fireEvent(new ResizeProgressEvent(clientHeight, clientWidth));
     }
 
     protected void fireResizeStart(ResizeLocation resizeLocation) {
@@ -361,86 +785,335 @@ public class ResizableVCssLayout extends VCssLayout implements
         fireEvent(new ResizeCancelEvent());
     }
 
-    protected class ResizeHandler implements EventListener {
+    /**
+     * Returns the handler for the resizes of this widget, or <code>null</code>
+     * if the widget has never been resizable.
+     */
+    ResizeHandler getResizeHandler() {
+        return resizeHandler;
+    }
+
+    /**
+     * Returns the location of the given element if it is one of the resize
+     * handles of this widget, otherwise <code>null</code>.
+     */
+    ResizeLocation getResizeLocation(Element element) {
+        if (!isResizeDOMInitialized()) {
+            return null;
+        } else if (element == topLeftCorner) {
+            return ResizeLocation.TOP_LEFT;
+        } else if (element == topSide) {
+            return ResizeLocation.TOP;
+        } else if (element == topRightCorner) {
+            return ResizeLocation.TOP_RIGHT;
+        } else if (element == rightSide) {
+            return ResizeLocation.RIGHT;
+        } else if (element == bottomRightCorner) {
+            return ResizeLocation.BOTTOM_RIGHT;
+        } else if (element == bottomSide) {
+            return ResizeLocation.BOTTOM;
+        } else if (element == bottomLeftCorner) {
+            return ResizeLocation.BOTTOM_LEFT;
+        } else if (element == leftSide) {
+            return ResizeLocation.LEFT;
+        }
+        return null;
+    }
+
+    /**
+     * The size of the component before an optimistically applied resize,
+     * restored if the resize is canceled.
+     */
+    private static class ResizeUndoRecord {
+
+        private final int resizeId;
+        private final double endTime;
+        private String width;
+        private String height;
+
+        private ResizeUndoRecord(int resizeId, double endTime, String width,
+                String height) {
+            this.resizeId = resizeId;
+            this.endTime = endTime;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    protected class ResizeHandler {
 
         private int startClientX = 0;
         private int startClientY = 0;
         private int startWidth = 0;
         private int startHeight = 0;
+        private double dragWidth = 0;
+        private double dragHeight = 0;
+        private int resultWidth = 0;
+        private int resultHeight = 0;
+        private boolean transformActive;
+        private double lastProgressTime;
+        private int lastProgressWidth;
+        private int lastProgressHeight;
         private boolean resizingX;
         private boolean revertX;
         private boolean revertY;
         private boolean resizingY;
-        private Element draggedElement;
         private boolean waitingAccept;
+        private int resizeId;
+        private boolean started;
+        private ResizeLocation startLocation;
+        private int downClientX;
+        private int downClientY;
         private HandlerRegistration cancelListenerRegistration;
         private boolean resizeCanceled;
+        private final LinkedList<ResizeUndoRecord> pendingUndoRecords = new LinkedList<ResizeUndoRecord>();
+        private double traceDownTime;
+        private double traceFirstMoveTime;
+        private double traceUpTime;
+        private int traceMoveEvents;
+        private int traceFrames;
+        private FrameSampler activeFrameSampler;
+        private int latestClientX = 0;
+        private int latestClientY = 0;
+        private AnimationHandle frameHandle;
+        private boolean boundaryGeometryValid;
+        private int boundaryTop;
+        private int boundaryBottom;
+        private int boundaryLeft;
+        private int boundaryRight;
+        private int boundaryScrollTop;
+        private int boundaryScrollLeft;
+        private JavaScriptObject boundaryScrollListener;
+        private Element boundaryScrollListenerElement;
+        private HandlerRegistration windowResizeRegistration;
+        private final AnimationCallback frameCallback = new AnimationCallback() {
+
+            @Override
+            public void execute(double timestamp) {
+                frameHandle = null;
+                if (resizingX || resizingY) {
+                    traceFrames++;
+                    updateDragOverlay();
+                    reportProgress();
+                }
+            }
+        };
+
+        /**
+         * Returns whether a resize is in progress or waiting for acceptance.
+         */
+        protected boolean isActive() {
+            return resizingX || resizingY || waitingAccept;
+        }
+
+        /**
+         * Returns whether a resize is in progress.
+         */
+        protected boolean isResizing() {
+            return resizingX || resizingY;
+        }
 
-        @Override
-        public void onBrowserEvent(Event event) {
-            final EventTarget currentTarget = event.getCurrentEventTarget();
-            final Element target = currentTarget.cast();
-            final Element targetParent = target.getParentElement();
-            if (resizingX
-                    || resizingY
-                    || getElement().equals(targetParent)
-                    || (targetParent != null && getElement().equals(
-                            targetParent.getParentElement()))) {
-                switch (event.getTypeInt()) {
-                case Event.ONMOUSEMOVE:
-                    onMouseMove(event);
-                    break;
-                case Event.ONMOUSEDOWN:
-                    onResizeStart(event, target);
-                    break;
-                case Event.ONMOUSEUP:
-                    onResizeEnd(event);
-                    break;
-                default:
-                    break;
+        /**
+         * Records the latest pointer position of a move event.
+         *
+         * @param event
+         *            the move event
+         * @param clientX
+         *            the latest horizontal pointer position
+         * @param clientY
+         *            the latest vertical pointer position
+         */
+        void onMouseMove(NativeEvent event, int clientX, int clientY) {
+            if (resizeTracing && (resizingX || resizingY)) {
+                if (traceMoveEvents++ == 0) {
+                    traceFirstMoveTime = Duration.currentTimeMillis();
                 }
-            } else if (resizeCanceled && event.getTypeInt() == Event.ONMOUSEUP) {
-                event.preventDefault();
+            }
+            if (resizingY) {
+                latestClientY = clientY;
+                event.stopPropagation();
+            }
+            if (resizingX) {
+                latestClientX = clientX;
                 event.stopPropagation();
             }
+            if (resizingX || resizingY) {
+                if (!started) {
+                    checkDragThreshold(clientX, clientY);
+                }
+                if (started) {
+                    scheduleDragOverlayUpdate();
+                }
+            }
+        }
+
+        /**
+         * Fires the deferred resize start once the pointer has moved at least
+         * the drag threshold from where it was pressed.
+         */
+        private void checkDragThreshold(int clientX, int clientY) {
+            if (Math.abs(clientX - downClientX) >= dragThreshold
+                    || Math.abs(clientY - downClientY) >= dragThreshold) {
+                started = true;
+                startFrameSampling();
+                fireResizeStart(startLocation);
+            }
+        }
+
+        private void startFrameSampling() {
+            if (frameSampler != null) {
+                activeFrameSampler = frameSampler;
+                activeFrameSampler.start(ResizableVCssLayout.this);
+            }
+        }
+
+        /**
+         * Stops sampling the frames of the current drag, if sampled.
+         */
+        void stopFrameSampling() {
+            if (activeFrameSampler != null) {
+                activeFrameSampler.stop();
+                activeFrameSampler = null;
+            }
+        }
+
+        /**
+         * Schedules the drag overlay to be updated on the next animation frame,
+         * unless an update is already pending.
+         */
+        private void scheduleDragOverlayUpdate() {
+            if (frameHandle == null) {
+                frameHandle = AnimationScheduler.get().requestAnimationFrame(
+                        frameCallback);
+            }
+        }
+
+        /**
+         * Cancels any pending animation frame update.
+         */
+        private void cancelDragOverlayUpdate() {
+            if (frameHandle != null) {
+                frameHandle.cancel();
+                frameHandle = null;
+            }
+        }
+
+        /**
+         * Applies the latest pointer position to the drag overlay immediately
+         * and cancels any pending animation frame update.
+         */
+        private void flushDragOverlayUpdate() {
+            cancelDragOverlayUpdate();
+            updateDragOverlay();
+        }
+
+        /**
+         * Reads the geometry of the boundary element, unless the previously
+         * read values are still valid.
+         */
+        private void ensureBoundaryGeometry() {
+            if (!boundaryGeometryValid && boundaryElement != null) {
+                boundaryTop = boundaryElement.getAbsoluteTop();
+                boundaryBottom = boundaryElement.getAbsoluteBottom();
+                boundaryLeft = boundaryElement.getAbsoluteLeft();
+                boundaryRight = boundaryElement.getAbsoluteRight();
+                boundaryScrollTop = boundaryElement.getScrollTop();
+                boundaryScrollLeft = boundaryElement.getScrollLeft();
+                boundaryGeometryValid = true;
+            }
+        }
+
+        /**
+         * Marks the boundary geometry to be read again on the next frame.
+         * Called when the boundary element is scrolled or the window is
+         * resized during a resize.
+         */
+        private void invalidateBoundaryGeometry() {
+            boundaryGeometryValid = false;
+            if (resizingX || resizingY) {
+                scheduleDragOverlayUpdate();
+            }
+        }
+
+        private void listenToBoundaryGeometryChanges() {
+            if (boundaryElement != null) {
+                boundaryScrollListenerElement = boundaryElement;
+                boundaryScrollListener = addScrollListener(boundaryElement);
+            }
+            windowResizeRegistration = Window
+                    .addResizeHandler(new com.google.gwt.event.logical.shared.ResizeHandler() {
+
+                        @Override
+                        public void onResize(ResizeEvent event) {
+                            invalidateBoundaryGeometry();
+                        }
+                    });
+        }
+
+        private void stopListeningToBoundaryGeometryChanges() {
+            if (boundaryScrollListener != null) {
+                removeScrollListener(boundaryScrollListenerElement,
+                        boundaryScrollListener);
+                boundaryScrollListener = null;
+                boundaryScrollListenerElement = null;
+            }
+            if (windowResizeRegistration != null) {
+                windowResizeRegistration.removeHandler();
+                windowResizeRegistration = null;
+            }
+            boundaryGeometryValid = false;
         }
 
-        private void onMouseMove(Event event) {
+        private native JavaScriptObject addScrollListener(Element element)
+        /*-{
+            var self = this;
+            var listener = $entry(function() {
+                self.@com.vaadin.pekka.resizablecsslayout.client.ResizableVCssLayout.ResizeHandler::invalidateBoundaryGeometry()();
+            });
+            element.addEventListener('scroll', listener, false);
+            return listener;
+        }-*/;
+
+        private native void removeScrollListener(Element element,
+                JavaScriptObject listener)
+        /*-{
+            element.removeEventListener('scroll', listener, false);
+        }-*/;
+
+        private void updateDragOverlay() {
             double height = -1.0;
             double width = -1.0;
 
+            ensureBoundaryGeometry();
+
             if (resizingY) {
-                int clientY = WidgetUtil.getTouchOrMouseClientY(event);
-                if (!isInVerticalBoundary(event)) {
+                int clientY = latestClientY;
+                if (!isInVerticalBoundary(clientY)) {
                     // set the size to the edge of the boundary element
-                    clientY = clientY < boundaryElement.getAbsoluteTop() ? (boundaryElement
-                            .getAbsoluteTop() + 2) : (boundaryElement
-                            .getAbsoluteBottom() - 2);
+                    clientY = clientY < boundaryTop ? (boundaryTop + 2)
+                            : (boundaryBottom - 2);
                 }
                 int extraScrollHeight = boundaryElement == null ? 0
-                        : boundaryElement.getScrollTop();
+                        : boundaryScrollTop;
                 height = startHeight
                         + extraScrollHeight
                         + (revertY ? startClientY - clientY : clientY
                                 - startClientY);
-                event.stopPropagation();
             }
 
             if (resizingX) {
-                int clientX = WidgetUtil.getTouchOrMouseClientX(event);
-                if (!isInHorizontalBoundary(event)) {
+                int clientX = latestClientX;
+                if (!isInHorizontalBoundary(clientX)) {
                     // set the size to the edge of the boundary element
-                    clientX = clientX < boundaryElement.getAbsoluteLeft() ? (boundaryElement
-                            .getAbsoluteLeft() + 2) : (boundaryElement
-                            .getAbsoluteRight() - 2);
+                    clientX = clientX < boundaryLeft ? (boundaryLeft + 2)
+                            : (boundaryRight - 2);
                 }
                 int extraScrollWidth = boundaryElement == null ? 0
-                        : boundaryElement.getScrollLeft();
+                        : boundaryScrollLeft;
                 width = startWidth
                         + extraScrollWidth
                         + (revertX ? startClientX - clientX : clientX
                                 - startClientX);
-                event.stopPropagation();
             }
 
             if (keepAspectRatio && (height > -1.0 || width > 1.0)) {
@@ -459,7 +1132,26 @@ public class ResizableVCssLayout extends VCssLayout implements
                     }
 
                 }
+            }
 
+            if (height > -1.0) {
+                height = ResizeConstraints.constrain(height, minResizeHeight,
+                        maxResizeHeight, resizeStep);
+                dragHeight = height;
+            }
+            if (width > -1.0) {
+                width = ResizeConstraints.constrain(width, minResizeWidth,
+                        maxResizeWidth, resizeStep);
+                dragWidth = width;
+            }
+
+            if (transformActive) {
+                double scaleX = startWidth > 0 ? dragWidth / startWidth : 1.0;
+                double scaleY = startHeight > 0 ? dragHeight / startHeight
+                        : 1.0;
+                dragOverlayElement.getStyle().setProperty("transform",
+                        "scale(" + scaleX + "," + scaleY + ")");
+            } else if (keepAspectRatio && (height > -1.0 || width > 1.0)) {
                 dragOverlayElement.getStyle().setHeight(height, Unit.PX);
                 dragOverlayElement.getStyle().setWidth(width, Unit.PX);
             }
@@ -475,21 +1167,58 @@ public class ResizableVCssLayout extends VCssLayout implements
 
         }
 
-        private boolean isInHorizontalBoundary(Event event) {
+        /**
+         * Fires a {@link ResizeProgressEvent} if progress reporting is enabled,
+         * the size has changed and the interval has passed since the previous
+         * event.
+         */
+        private void reportProgress() {
+            if (resizeProgressInterval < 0 || !started) {
+                return;
+            }
+            int width = (int) Math.round(dragWidth);
+            int height = (int) Math.round(dragHeight);
+            if (width == lastProgressWidth && height == lastProgressHeight) {
+                return;
+            }
+            double now = Duration.currentTimeMillis();
+            if (now - lastProgressTime >= resizeProgressInterval) {
+                lastProgressTime = now;
+                lastProgressWidth = width;
+                lastProgressHeight = height;
+                fireResizeProgress(width, height);
+            }
+        }
+
+        /**
+         * Calculates the resulting size of the drag overlay. In transform mode
+         * the size is calculated from the drag, otherwise it is read from the
+         * overlay element.
+         */
+        private void calculateResultSize() {
+            if (transformActive) {
+                resultWidth = (int) Math.round(dragWidth);
+                resultHeight = (int) Math.round(dragHeight);
+            } else {
+                resultWidth = WidgetUtil.getRequiredWidth(dragOverlayElement);
+                resultHeight = WidgetUtil
+                        .getRequiredHeight(dragOverlayElement);
+            }
+        }
+
+        private boolean isInHorizontalBoundary(int clientX) {
             if (boundaryElement != null) {
-                int clientX = event.getClientX();
-                int right = boundaryElement.getAbsoluteRight() - 1;
-                int left = boundaryElement.getAbsoluteLeft() + 1;
+                int right = boundaryRight - 1;
+                int left = boundaryLeft + 1;
                 return clientX > left && clientX < right;
             }
             return true;
         }
 
-        private boolean isInVerticalBoundary(Event event) {
+        private boolean isInVerticalBoundary(int clientY) {
             if (boundaryElement != null) {
-                int clientY = event.getClientY();
-                int top = boundaryElement.getAbsoluteTop() + 1;
-                int bottom = boundaryElement.getAbsoluteBottom() - 1;
+                int top = boundaryTop + 1;
+                int bottom = boundaryBottom - 1;
                 return clientY > top && clientY < bottom;
             }
             return true;
@@ -522,84 +1251,254 @@ public class ResizableVCssLayout extends VCssLayout implements
             }
         }
 
-        protected void acceptResize(boolean accept) {
-            if (waitingAccept) {
+        protected void acceptResize(int id, boolean accept) {
+            if (waitingAccept && id == resizeId) {
                 waitingAccept = false;
-                if (accept) {
-                    getElement().getStyle().setWidth(
-                            WidgetUtil.getRequiredWidth(dragOverlayElement),
-                            Unit.PX);
-                    getElement().getStyle().setHeight(
-                            WidgetUtil.getRequiredHeight(dragOverlayElement),
-                            Unit.PX);
+                finishResize(accept);
+                fireResizeApplied(id, accept, traceUpTime);
+                return;
+            }
+            for (int i = 0; i < pendingUndoRecords.size(); i++) {
+                ResizeUndoRecord record = pendingUndoRecords.get(i);
+                if (record.resizeId == id) {
+                    pendingUndoRecords.remove(i);
+                    if (!accept) {
+                        rollback(record, i);
+                    }
+                    fireResizeApplied(id, accept, record.endTime);
+                    return;
                 }
-                resizingX = false;
-                resizingY = false;
-                draggedElement = null;
-                dragOverlayElement.removeFromParent();
-                Style style = dragOverlayElement.getStyle();
-                style.clearTop();
-                style.clearRight();
-                style.clearBottom();
-                style.clearLeft();
-                style.clearHeight();
-                style.clearWidth();
-                startClientX = 0;
-                startClientY = 0;
-                startHeight = 0;
-                startWidth = 0;
-                getElement().removeClassName("resizing");
-            }
-        }
-
-        private void onResizeEnd(Event event) {
+            }
+            // stale or duplicate verdict, NOOP
+        }
+
+        /**
+         * Returns the milliseconds from the pointer down to the pointer up of
+         * the current resize.
+         */
+        int getDragDuration() {
+            return (int) (traceUpTime - traceDownTime);
+        }
+
+        /**
+         * Returns the timings of the current resize up to the pointer up.
+         */
+        ResizeTiming getTiming() {
+            int firstMoveDelay = traceMoveEvents == 0 ? -1
+                    : (int) (traceFirstMoveTime - traceDownTime);
+            return new ResizeTiming(firstMoveDelay,
+                    (int) (traceUpTime - traceDownTime), traceMoveEvents,
+                    traceFrames);
+        }
+
+        private void fireResizeApplied(int id, boolean accept, double endTime) {
+            if (resizeTracing) {
+                fireEvent(new ResizeAppliedEvent(id, accept,
+                        (int) (Duration.currentTimeMillis() - endTime)));
+            }
+        }
+
+        /**
+         * Returns the id of the oldest resize waiting for acceptance, or
+         * <code>-1</code> if there is none.
+         */
+        int getOldestPendingId() {
+            if (!pendingUndoRecords.isEmpty()) {
+                return pendingUndoRecords.getFirst().resizeId;
+            }
+            return waitingAccept ? resizeId : -1;
+        }
+
+        /**
+         * Restores the size from before the given canceled resize. If later
+         * resizes are still pending, the size is kept and the next pending
+         * resize will restore it instead if it is canceled too.
+         *
+         * @param index
+         *            the index the record was removed from
+         */
+        private void rollback(ResizeUndoRecord record, int index) {
+            if (index >= pendingUndoRecords.size()) {
+                Style style = getElement().getStyle();
+                style.setProperty("width", record.width);
+                style.setProperty("height", record.height);
+            } else {
+                ResizeUndoRecord next = pendingUndoRecords.get(index);
+                next.width = record.width;
+                next.height = record.height;
+            }
+        }
+
+        /**
+         * Applies the current resize optimistically and records the previous
+         * size to be restored if the resize is canceled.
+         */
+        private void applyOptimistically() {
+            Style style = getElement().getStyle();
+            pendingUndoRecords.addLast(new ResizeUndoRecord(resizeId,
+                    traceUpTime, style.getWidth(), style.getHeight()));
+            finishResize(true);
+        }
+
+        /**
+         * Removes the drag overlay and applies the new size if requested.
+         */
+        private void finishResize(boolean accept) {
+            if (accept) {
+                getElement().getStyle().setWidth(resultWidth, Unit.PX);
+                getElement().getStyle().setHeight(resultHeight, Unit.PX);
+            }
+            resizingX = false;
+            resizingY = false;
+            dragOverlayElement.removeFromParent();
+            Style style = dragOverlayElement.getStyle();
+            style.clearTop();
+            style.clearRight();
+            style.clearBottom();
+            style.clearLeft();
+            style.clearHeight();
+            style.clearWidth();
+            if (transformActive) {
+                style.clearProperty("transform");
+                style.clearProperty("transformOrigin");
+                dragOverlayElement
+                        .removeClassName(TRANSFORM_OVERLAY_STYLE_NAME);
+                transformActive = false;
+            }
+            startClientX = 0;
+            startClientY = 0;
+            startHeight = 0;
+            startWidth = 0;
+            getElement().removeClassName("resizing");
+            if (!resizable) {
+                scheduleResizeDOMRelease();
+            }
+        }
+
+        void onResizeEnd(NativeEvent event) {
             if (resizingX || resizingY) {
+                if (resizingX) {
+                    latestClientX = WidgetUtil.getTouchOrMouseClientX(event);
+                }
+                if (resizingY) {
+                    latestClientY = WidgetUtil.getTouchOrMouseClientY(event);
+                }
+                if (!started) {
+                    checkDragThreshold(
+                            WidgetUtil.getTouchOrMouseClientX(event),
+                            WidgetUtil.getTouchOrMouseClientY(event));
+                }
+                if (!started) {
+                    // a click on the resize location, not a resize
+                    cancelDragOverlayUpdate();
+                    stopListeningToBoundaryGeometryChanges();
+                    cancelListenerRegistration.removeHandler();
+                    finishResize(false);
+                    stopCursorOverride();
+                    unmarkBoundaryResizing();
+                    return;
+                }
+                flushDragOverlayUpdate();
+                stopListeningToBoundaryGeometryChanges();
+                stopFrameSampling();
+                traceUpTime = Duration.currentTimeMillis();
+
                 resizingX = false;
                 resizingY = false;
                 waitingAccept = true;
 
-                Event.releaseCapture(draggedElement);
                 event.stopPropagation();
 
                 stopCursorOverride();
                 unmarkBoundaryResizing();
 
-                fireResizeEnd(WidgetUtil.getRequiredWidth(dragOverlayElement),
-                        WidgetUtil.getRequiredHeight(dragOverlayElement));
+                calculateResultSize();
+                fireResizeEnd(resultWidth, resultHeight);
 
                 if (autoAcceptResize) {
-                    acceptResize(true);
+                    acceptResize(resizeId, true);
+                } else if (optimisticResize) {
+                    waitingAccept = false;
+                    applyOptimistically();
                 }
+            } else if (resizeCanceled) {
+                // swallow the mouse up of a resize canceled with ESC
+                event.preventDefault();
+                event.stopPropagation();
             }
         }
 
-        private void onResizeStart(Event event, Element target) {
+        /**
+         * Applies the resize waiting for acceptance optimistically, if any.
+         */
+        void applyWaitingOptimistically() {
+            if (waitingAccept) {
+                waitingAccept = false;
+                applyOptimistically();
+            }
+        }
+
+        /**
+         * Starts a resize from the given location, unless a resize is already
+         * in progress or, when not in optimistic resize mode, still waiting
+         * for acceptance. The size of a waiting resize is never shown before
+         * the server accepts it.
+         *
+         * @return <code>true</code> if the resize was started
+         */
+        boolean onResizeStart(NativeEvent event, ResizeLocation resizeLocation) {
             if (!(resizingX || resizingY || waitingAccept)) {
+                resizeId++;
                 resizeCanceled = false;
-                draggedElement = target;
-                ResizeLocation resizeLocation;
+                started = false;
+                traceDownTime = Duration.currentTimeMillis();
+                traceMoveEvents = 0;
+                traceFrames = 0;
+                startLocation = resizeLocation;
+                downClientX = WidgetUtil.getTouchOrMouseClientX(event);
+                downClientY = WidgetUtil.getTouchOrMouseClientY(event);
 
                 startWidth = WidgetUtil.getRequiredWidth(getElement());
                 startHeight = WidgetUtil.getRequiredHeight(getElement());
-                if (target.equals(topSide) || target.equals(bottomSide)) {
-                    resizeLocation = startVerticalResize(event, target);
-                } else if (target.equals(leftSide) || target.equals(rightSide)) {
-                    resizeLocation = startHorizontalResize(event, target);
+                dragWidth = startWidth;
+                dragHeight = startHeight;
+                lastProgressTime = 0;
+                lastProgressWidth = startWidth;
+                lastProgressHeight = startHeight;
+                boundaryGeometryValid = false;
+                ensureBoundaryGeometry();
+                if (resizeLocation == ResizeLocation.TOP
+                        || resizeLocation == ResizeLocation.BOTTOM) {
+                    startVerticalResize(event, resizeLocation);
+                } else if (resizeLocation == ResizeLocation.LEFT
+                        || resizeLocation == ResizeLocation.RIGHT) {
+                    startHorizontalResize(event, resizeLocation);
                 } else {
-                    resizeLocation = startDiagonalResize(event, target);
+                    startDiagonalResize(event, resizeLocation);
                 }
 
-                fireResizeStart(resizeLocation);
+                if (transformDragOverlay) {
+                    startTransform();
+                }
+
+                if (dragThreshold <= 0) {
+                    started = true;
+                    startFrameSampling();
+                    fireResizeStart(resizeLocation);
+                }
 
                 getElement().addClassName("resizing");
                 getElement().appendChild(dragOverlayElement);
-                Event.setCapture(draggedElement);
                 event.stopPropagation();
+                event.preventDefault();
 
                 overrideCursor(resizeLocation);
                 markBoundaryResizing();
                 listenToCancel();
+                listenToBoundaryGeometryChanges();
+                return true;
             }
+            return false;
         }
 
         private void listenToCancel() {
@@ -621,93 +1520,112 @@ public class ResizableVCssLayout extends VCssLayout implements
                     });
         }
 
-        private void onResizeCancel(NativeEvent event) {
-            cancelListenerRegistration.removeHandler();
-            Event.releaseCapture(draggedElement);
+        void onResizeCancel(NativeEvent event) {
             event.stopPropagation();
             event.preventDefault();
+            cancelResize();
+        }
+
+        /**
+         * Cancels the resize in progress, restoring the size from before it.
+         */
+        void cancelResize() {
+            cancelListenerRegistration.removeHandler();
+            cancelDragOverlayUpdate();
+            stopListeningToBoundaryGeometryChanges();
+            stopFrameSampling();
 
             resizeCanceled = true;
-            waitingAccept = true;
-            ResizeHandler.this.acceptResize(false);
+            finishResize(false);
 
             stopCursorOverride();
             unmarkBoundaryResizing();
-            fireResizeCancel();
+            if (started) {
+                fireResizeCancel();
+            }
+        }
+
+        /**
+         * Fixes the overlay to its start size and sets the transform origin to
+         * the edges that stay in place during the resize.
+         */
+        private void startTransform() {
+            transformActive = true;
+            Style style = dragOverlayElement.getStyle();
+            style.setWidth(startWidth, Unit.PX);
+            style.setHeight(startHeight, Unit.PX);
+            style.setProperty("transformOrigin", (revertX ? "right" : "left")
+                    + " " + (revertY ? "bottom" : "top"));
+            dragOverlayElement.addClassName(TRANSFORM_OVERLAY_STYLE_NAME);
         }
 
-        private ResizeLocation startDiagonalResize(Event event, Element target) {
-            ResizeLocation resizeLocation;
+        private void startDiagonalResize(NativeEvent event,
+                ResizeLocation resizeLocation) {
             resizingX = true;
             resizingY = true;
 
             Style style = dragOverlayElement.getStyle();
             startClientY = WidgetUtil.getTouchOrMouseClientY(event);
+            latestClientY = startClientY;
             style.setHeight(startHeight, Unit.PX);
             startClientX = WidgetUtil.getTouchOrMouseClientX(event);
+            latestClientX = startClientX;
             style.setWidth(startWidth, Unit.PX);
 
-            if (target.equals(topLeftCorner) || target.equals(topRightCorner)) {
+            if (resizeLocation == ResizeLocation.TOP_LEFT
+                    || resizeLocation == ResizeLocation.TOP_RIGHT) {
                 revertY = true;
                 style.setBottom(0, Unit.PX);
-                resizeLocation = target.equals(topLeftCorner) ? ResizeLocation.TOP_LEFT
-                        : ResizeLocation.TOP_RIGHT;
             } else {
                 revertY = false;
                 style.setTop(0, Unit.PX);
-                resizeLocation = target.equals(bottomRightCorner) ? ResizeLocation.BOTTOM_RIGHT
-                        : ResizeLocation.BOTTOM_LEFT;
             }
-            if (target.equals(topLeftCorner) || target.equals(bottomLeftCorner)) {
+            if (resizeLocation == ResizeLocation.TOP_LEFT
+                    || resizeLocation == ResizeLocation.BOTTOM_LEFT) {
                 revertX = true;
                 style.setRight(0, Unit.PX);
             } else {
                 revertX = false;
                 style.setLeft(0, Unit.PX);
             }
-            return resizeLocation;
         }
 
-        private ResizeLocation startVerticalResize(Event event, Element target) {
-            ResizeLocation resizeLocation;
+        private void startVerticalResize(NativeEvent event,
+                ResizeLocation resizeLocation) {
             resizingY = true;
             Style style = dragOverlayElement.getStyle();
             startClientY = WidgetUtil.getTouchOrMouseClientY(event);
+            latestClientY = startClientY;
             style.setHeight(startHeight, Unit.PX);
 
-            if (target.equals(topSide)) {
+            if (resizeLocation == ResizeLocation.TOP) {
                 revertY = true;
                 style.setBottom(0, Unit.PX);
-                resizeLocation = ResizeLocation.TOP;
             } else {
                 revertY = false;
                 style.setTop(0, Unit.PX);
-                resizeLocation = ResizeLocation.BOTTOM;
             }
             style.setLeft(0, Unit.PX);
             style.setRight(0, Unit.PX);
-            return resizeLocation;
         }
 
-        private ResizeLocation startHorizontalResize(Event event, Element target) {
-            ResizeLocation resizeLocation;
+        private void startHorizontalResize(NativeEvent event,
+                ResizeLocation resizeLocation) {
             resizingX = true;
             Style style = dragOverlayElement.getStyle();
             startClientX = WidgetUtil.getTouchOrMouseClientX(event);
+            latestClientX = startClientX;
             style.setWidth(startWidth, Unit.PX);
 
-            if (target.equals(leftSide)) {
+            if (resizeLocation == ResizeLocation.LEFT) {
                 revertX = true;
                 style.setRight(0, Unit.PX);
-                resizeLocation = ResizeLocation.LEFT;
             } else {
                 revertX = false;
                 style.setLeft(0, Unit.PX);
-                resizeLocation = ResizeLocation.RIGHT;
             }
             style.setTop(0, Unit.PX);
             style.setBottom(0, Unit.PX);
-            return resizeLocation;
         }
 
     }
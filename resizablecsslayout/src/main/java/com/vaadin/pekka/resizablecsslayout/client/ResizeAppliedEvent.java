@@ -0,0 +1,76 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * GWT event fired when the verdict for a resize has been applied, only when
+ * {@link ResizableVCssLayout#setResizeTracing(boolean)} is enabled. Contains
+ * the time from the pointer up to the verdict.
+ */
+public class ResizeAppliedEvent extends GwtEvent<ResizeAppliedEvent.Handler> {
+
+    /**
+     * Handler for {@link ResizeAppliedEvent}s.
+     */
+    public interface Handler extends EventHandler {
+
+        void onResizeApplied(ResizeAppliedEvent event);
+    }
+
+    private final int resizeId;
+    private final boolean accepted;
+    private final int applyDelay;
+
+    public ResizeAppliedEvent(int resizeId, boolean accepted, int applyDelay) {
+        this.resizeId = resizeId;
+        this.accepted = accepted;
+        this.applyDelay = applyDelay;
+    }
+
+    /**
+     * @return the id of the resize
+     */
+    public int getResizeId() {
+        return resizeId;
+    }
+
+    /**
+     * @return whether the resize was accepted or canceled
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return the time in milliseconds from the pointer up to the verdict
+     *         being applied
+     */
+    public int getApplyDelay() {
+        return applyDelay;
+    }
+
+    /**
+     * Event type for resize applied events.
+     */
+    private static final Type<Handler> TYPE = new Type<Handler>();
+
+    /**
+     * Gets the event type associated with resize applied events.
+     *
+     * @return the handler type
+     */
+    public static Type<Handler> getType() {
+        return TYPE;
+    }
+
+    @Override
+    public final Type<Handler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(Handler handler) {
+        handler.onResizeApplied(this);
+    }
+}
@@ -0,0 +1,55 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+/**
+ * Size constraints for a resize, shared by the client side widget and the
+ * server side component. The client applies them during the drag and the
+ * server validates the resulting size again.
+ */
+public final class ResizeConstraints {
+
+    private ResizeConstraints() {
+    }
+
+    /**
+     * Returns the given size rounded to the closest multiple of the step
+     * between the minimum and the maximum. When there is no multiple of the
+     * step between them, the size is only limited to the minimum and maximum.
+     * The minimum wins over a smaller maximum. Constraining a constrained
+     * size again returns it unchanged, so the server can validate the size
+     * constrained by the client.
+     *
+     * @param size
+     *            the size in pixels
+     * @param min
+     *            the minimum size in pixels, <code>0</code> or less for no
+     *            minimum
+     * @param max
+     *            the maximum size in pixels, negative for no maximum
+     * @param step
+     *            the step in pixels, <code>1</code> or less for no step
+     * @return the constrained size
+     */
+    public static int constrain(int size, int min, int max, int step) {
+        int upper = max >= 0 ? Math.max(max, min) : Integer.MAX_VALUE;
+        if (step > 1) {
+            // the closest multiples of the step inside the limits, the
+            // division truncates towards zero
+            int lowerStep = min > 0 ? (min + step - 1) / step * step
+                    : min / step * step;
+            int upperStep = upper / step * step;
+            if (lowerStep <= upperStep) {
+                int stepped = Math.round((float) size / step) * step;
+                return Math.min(Math.max(stepped, lowerStep), upperStep);
+            }
+        }
+        return Math.min(Math.max(size, min), upper);
+    }
+
+    /**
+     * Returns the given size constrained with
+     * {@link #constrain(int, int, int, int)}.
+     */
+    public static double constrain(double size, int min, int max, int step) {
+        return constrain((int) Math.round(size), min, max, step);
+    }
+}
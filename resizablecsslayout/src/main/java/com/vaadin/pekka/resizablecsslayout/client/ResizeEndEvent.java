@@ -11,10 +11,23 @@ public class ResizeEndEvent extends GwtEvent<ResizableLayoutHandler> {
 
     private final int height;
     private final int width;
+    private final int dragDuration;
+    private final ResizeTiming timing;
 
     public ResizeEndEvent(int height, int width) {
+        this(height, width, null);
+    }
+
+    public ResizeEndEvent(int height, int width, ResizeTiming timing) {
+        this(height, width, -1, timing);
+    }
+
+    public ResizeEndEvent(int height, int width, int dragDuration,
+            ResizeTiming timing) {
         this.height = height;
         this.width = width;
+        this.dragDuration = dragDuration;
+        this.timing = timing;
     }
 
     /**
@@ -31,6 +44,22 @@ public class ResizeEndEvent extends GwtEvent<ResizableLayoutHandler> {
         return width;
     }
 
+    /**
+     * @return the milliseconds from the press to the release, or
+     *         <code>-1</code> if not known
+     */
+    public int getDragDuration() {
+        return dragDuration;
+    }
+
+    /**
+     * @return the client side timings of the resize, or <code>null</code> if
+     *         resize tracing is not enabled
+     */
+    public ResizeTiming getTiming() {
+        return timing;
+    }
+
     /**
      * Event type for resize end events.
      */
@@ -0,0 +1,20 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import com.vaadin.client.ServerConnector;
+import com.vaadin.client.extensions.AbstractExtensionConnector;
+import com.vaadin.pekka.resizablecsslayout.ResizeEventBus;
+import com.vaadin.shared.ui.Connect;
+
+/**
+ * Client side counterpart of {@link ResizeEventBus}. The resize events are
+ * batched and delivered on the server, so there is nothing to do here.
+ */
+@SuppressWarnings("serial")
+@Connect(ResizeEventBus.class)
+public class ResizeEventBusConnector extends AbstractExtensionConnector {
+
+    @Override
+    protected void extend(ServerConnector target) {
+        // NOOP
+    }
+}
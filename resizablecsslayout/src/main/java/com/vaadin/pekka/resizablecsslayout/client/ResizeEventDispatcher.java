@@ -0,0 +1,260 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.NativeEvent;
+import com.vaadin.client.WidgetUtil;
+
+/**
+ * Page wide dispatcher for the resize events of all
+ * {@link ResizableVCssLayout} widgets. A single pointer down listener is added
+ * to the document while there are resizable widgets on the page. The owning
+ * widget is resolved from the pressed element, which must be one of its
+ * resize handles, and gives the {@link ResizeLocation}. Pointer move and
+ * pointer up listeners are added to the document only for the duration of a
+ * resize.
+ * <p>
+ * Pointer Events are used when the browser supports them, so that resizing
+ * works with touch and pen input too. The pressed element captures the
+ * pointer. Mouse events are used on browsers without Pointer Events.
+ * <p>
+ * Coalesced pointer move events are not read, since the drag only needs the
+ * latest position, which is the position of the dispatched event.
+ */
+class ResizeEventDispatcher {
+
+    private static final Set<String> resizeLocationClassNames = new HashSet<String>(
+            Arrays.asList(ResizableVCssLayout.TOP_LEFT_CLASS_NAME,
+                    ResizableVCssLayout.TOP_CLASS_NAME,
+                    ResizableVCssLayout.TOP_RIGHT_CLASS_NAME,
+                    ResizableVCssLayout.RIGHT_CLASS_NAME,
+                    ResizableVCssLayout.BOTTOM_RIGHT_CLASS_NAME,
+                    ResizableVCssLayout.BOTTOM_CLASS_NAME,
+                    ResizableVCssLayout.BOTTOM_LEFT_CLASS_NAME,
+                    ResizableVCssLayout.LEFT_CLASS_NAME));
+
+    private static final String CANCEL_EVENT_TYPE = "pointercancel";
+
+    private static ResizeEventDispatcher instance;
+
+    private final boolean pointerEvents = isPointerEventsSupported();
+    private final String downEventType = pointerEvents ? "pointerdown"
+            : "mousedown";
+    private final String moveEventType = pointerEvents ? "pointermove"
+            : "mousemove";
+    private final String upEventType = pointerEvents ? "pointerup"
+            : "mouseup";
+
+    private int registeredLayouts;
+    private JavaScriptObject downListener;
+    private JavaScriptObject moveListener;
+    private JavaScriptObject upListener;
+    private JavaScriptObject cancelListener;
+    private ResizableVCssLayout activeLayout;
+    private int activePointerId;
+    private Element captureElement;
+
+    private ResizeEventDispatcher() {
+    }
+
+    /**
+     * Returns the dispatcher for the page.
+     */
+    static ResizeEventDispatcher get() {
+        if (instance == null) {
+            instance = new ResizeEventDispatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers an attached widget that has resize locations. The document
+     * pointer down listener is added for the first registered widget.
+     */
+    void register(ResizableVCssLayout layout) {
+        if (registeredLayouts++ == 0) {
+            downListener = addDocumentListener(downEventType, false);
+        }
+    }
+
+    /**
+     * Unregisters a widget that has been detached or whose resize locations
+     * have been released. Any resize of the widget in progress stops
+     * receiving pointer events. The document pointer down listener is removed
+     * with the last widget.
+     */
+    void unregister(ResizableVCssLayout layout) {
+        if (activeLayout == layout) {
+            stopDrag();
+        }
+        if (--registeredLayouts == 0) {
+            removeDocumentListener(downEventType, downListener);
+            downListener = null;
+        }
+    }
+
+    /**
+     * Stops listening to pointer move and pointer up events for the active
+     * resize.
+     */
+    void stopDrag() {
+        if (activeLayout != null) {
+            activeLayout = null;
+            removeDocumentListener(moveEventType, moveListener);
+            removeDocumentListener(upEventType, upListener);
+            moveListener = null;
+            upListener = null;
+            if (pointerEvents) {
+                removeDocumentListener(CANCEL_EVENT_TYPE, cancelListener);
+                cancelListener = null;
+                releasePointerCapture(captureElement, activePointerId);
+                captureElement = null;
+            }
+        }
+    }
+
+    private void startDrag(ResizableVCssLayout layout, NativeEvent event,
+            Element target) {
+        activeLayout = layout;
+        // move listener never prevents default, so it can be passive
+        moveListener = addDocumentListener(moveEventType, true);
+        upListener = addDocumentListener(upEventType, false);
+        if (pointerEvents) {
+            // not passive, the cancel handling prevents the default action
+            cancelListener = addDocumentListener(CANCEL_EVENT_TYPE, false);
+            activePointerId = getPointerId(event);
+            captureElement = target;
+            setPointerCapture(captureElement, activePointerId);
+        }
+    }
+
+    private void onDocumentEvent(NativeEvent event) {
+        String type = event.getType();
+        if (downEventType.equals(type)) {
+            onPointerDown(event);
+        } else if (activeLayout != null && isActivePointer(event)) {
+            ResizableVCssLayout.ResizeHandler handler = activeLayout
+                    .getResizeHandler();
+            if (moveEventType.equals(type)) {
+                handler.onMouseMove(event,
+                        WidgetUtil.getTouchOrMouseClientX(event),
+                        WidgetUtil.getTouchOrMouseClientY(event));
+            } else if (upEventType.equals(type)) {
+                handler.onResizeEnd(event);
+                stopDrag();
+            } else if (CANCEL_EVENT_TYPE.equals(type)) {
+                if (handler.isResizing()) {
+                    handler.onResizeCancel(event);
+                }
+                stopDrag();
+            }
+        }
+    }
+
+    private boolean isActivePointer(NativeEvent event) {
+        return !pointerEvents || getPointerId(event) == activePointerId;
+    }
+
+    private void onPointerDown(NativeEvent event) {
+        if (activeLayout != null || !isPrimaryButton(event)) {
+            return;
+        }
+        EventTarget eventTarget = event.getEventTarget();
+        if (!Element.is(eventTarget)) {
+            return;
+        }
+        Element target = Element.as(eventTarget);
+        // the class name only filters out the other elements cheaply
+        if (!hasResizeLocationClassName(target)
+                || target.hasClassName(ResizableVCssLayout.UNUSED_STYLE_NAME)) {
+            return;
+        }
+        // the handles are not widgets, so this finds the layout that has them
+        ResizableVCssLayout layout = WidgetUtil.findWidget(target,
+                ResizableVCssLayout.class, false);
+        if (layout == null || layout.getResizeHandler() == null) {
+            return;
+        }
+        // any element could have the class name, only own handles resize
+        ResizeLocation location = layout.getResizeLocation(target);
+        if (location != null
+                && layout.getResizeHandler().onResizeStart(event, location)) {
+            startDrag(layout, event, target);
+        }
+    }
+
+    private static boolean hasResizeLocationClassName(Element target) {
+        String className = target.getClassName();
+        if (className == null || className.isEmpty()) {
+            return false;
+        }
+        int separator = className.indexOf(' ');
+        return resizeLocationClassNames.contains(separator < 0 ? className
+                : className.substring(0, separator));
+    }
+
+    private static native boolean isPointerEventsSupported()
+    /*-{
+        return !!$wnd.PointerEvent;
+    }-*/;
+
+    private static native boolean isPrimaryButton(NativeEvent event)
+    /*-{
+        return event.button === 0 && event.isPrimary !== false;
+    }-*/;
+
+    private static native int getPointerId(NativeEvent event)
+    /*-{
+        return event.pointerId | 0;
+    }-*/;
+
+    private static native void setPointerCapture(Element element,
+            int pointerId)
+    /*-{
+        if (element.setPointerCapture) {
+            try {
+                element.setPointerCapture(pointerId);
+            } catch (e) {
+                // the pointer is no longer active
+            }
+        }
+    }-*/;
+
+    private static native void releasePointerCapture(Element element,
+            int pointerId)
+    /*-{
+        if (element && element.hasPointerCapture
+                && element.hasPointerCapture(pointerId)) {
+            element.releasePointerCapture(pointerId);
+        }
+    }-*/;
+
+    /**
+     * Adds a capturing listener for the given event type to the document.
+     * Passive listeners must not prevent the default action of the event.
+     */
+    private native JavaScriptObject addDocumentListener(String type,
+            boolean passive)
+    /*-{
+        var self = this;
+        var listener = $entry(function(e) {
+            self.@com.vaadin.pekka.resizablecsslayout.client.ResizeEventDispatcher::onDocumentEvent(*)(e);
+        });
+        $doc.addEventListener(type, listener, {
+            capture : true,
+            passive : passive
+        });
+        return listener;
+    }-*/;
+
+    private native void removeDocumentListener(String type,
+            JavaScriptObject listener)
+    /*-{
+        $doc.removeEventListener(type, listener, true);
+    }-*/;
+}
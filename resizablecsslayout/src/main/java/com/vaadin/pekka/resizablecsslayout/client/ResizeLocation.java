@@ -1,8 +1,69 @@
 package com.vaadin.pekka.resizablecsslayout.client;
 
+import java.util.Collection;
+import java.util.EnumSet;
+
 /**
  * Different locations where resize can start.
  */
 public enum ResizeLocation {
     TOP_LEFT, TOP, TOP_RIGHT, RIGHT, BOTTOM_RIGHT, BOTTOM, BOTTOM_LEFT, LEFT;
+
+    /**
+     * Bitmask with all the locations set.
+     */
+    public static final int ALL_MASK = (1 << 8) - 1;
+
+    /**
+     * Returns whether a resize from this location changes the width.
+     */
+    public boolean isWidthResized() {
+        return this != TOP && this != BOTTOM;
+    }
+
+    /**
+     * Returns whether a resize from this location changes the height.
+     */
+    public boolean isHeightResized() {
+        return this != LEFT && this != RIGHT;
+    }
+
+    /**
+     * Returns the bit of this location in a resize location bitmask.
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns whether this location is set in the given bitmask.
+     */
+    public boolean isIn(int mask) {
+        return (mask & getMask()) != 0;
+    }
+
+    /**
+     * Returns the bitmask for the given locations.
+     */
+    public static int toMask(Collection<ResizeLocation> resizeLocations) {
+        int mask = 0;
+        for (ResizeLocation resizeLocation : resizeLocations) {
+            mask |= resizeLocation.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the locations set in the given bitmask.
+     */
+    public static EnumSet<ResizeLocation> fromMask(int mask) {
+        EnumSet<ResizeLocation> resizeLocations = EnumSet
+                .noneOf(ResizeLocation.class);
+        for (ResizeLocation resizeLocation : values()) {
+            if (resizeLocation.isIn(mask)) {
+                resizeLocations.add(resizeLocation);
+            }
+        }
+        return resizeLocations;
+    }
 }
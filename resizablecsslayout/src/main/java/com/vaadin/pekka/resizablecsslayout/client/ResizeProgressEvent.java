@@ -0,0 +1,58 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * GWT event for resize progress. Fired during the resize at most once per
+ * {@link ResizableVCssLayout#setResizeProgressInterval(int)} when progress
+ * reporting is enabled. Contains the current width and height of the drag
+ * overlay.
+ */
+public class ResizeProgressEvent extends GwtEvent<ResizableLayoutHandler> {
+
+    private final int height;
+    private final int width;
+
+    public ResizeProgressEvent(int height, int width) {
+        this.height = height;
+        this.width = width;
+    }
+
+    /**
+     * @return the current height of the drag overlay.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the current width of the drag overlay.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Event type for resize progress events.
+     */
+    private static final Type<ResizableLayoutHandler> TYPE = new Type<ResizableLayoutHandler>();
+
+    /**
+     * Gets the event type associated with resize progress events.
+     *
+     * @return the handler type
+     */
+    public static Type<ResizableLayoutHandler> getType() {
+        return TYPE;
+    }
+
+    @Override
+    public final Type<ResizableLayoutHandler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(ResizableLayoutHandler handler) {
+        handler.onResizeProgress(this);
+    }
+}
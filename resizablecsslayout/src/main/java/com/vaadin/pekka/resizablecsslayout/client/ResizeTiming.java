@@ -0,0 +1,51 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+/**
+ * Client side timings of one resize, recorded when
+ * {@link ResizableVCssLayout#setResizeTracing(boolean)} is enabled. The
+ * durations are in milliseconds from the pointer down.
+ */
+public class ResizeTiming {
+
+    private final int firstMoveDelay;
+    private final int dragDuration;
+    private final int moveEvents;
+    private final int frames;
+
+    public ResizeTiming(int firstMoveDelay, int dragDuration, int moveEvents,
+            int frames) {
+        this.firstMoveDelay = firstMoveDelay;
+        this.dragDuration = dragDuration;
+        this.moveEvents = moveEvents;
+        this.frames = frames;
+    }
+
+    /**
+     * @return the time from the pointer down to the first pointer move, or
+     *         <code>-1</code> if the pointer was not moved before the up
+     */
+    public int getFirstMoveDelay() {
+        return firstMoveDelay;
+    }
+
+    /**
+     * @return the time from the pointer down to the pointer up
+     */
+    public int getDragDuration() {
+        return dragDuration;
+    }
+
+    /**
+     * @return the number of pointer move events during the drag
+     */
+    public int getMoveEvents() {
+        return moveEvents;
+    }
+
+    /**
+     * @return the number of animation frames the drag overlay was updated in
+     */
+    public int getFrames() {
+        return frames;
+    }
+}
@@ -0,0 +1,40 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import com.vaadin.server.Sizeable.Unit;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.AbsoluteLayout;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+/**
+ * UI with many resizable layouts for {@link ResizeLoadSimulation}. Every
+ * other layout is in manual accept mode, so that both the auto accepted and
+ * the server accepted resizes are exercised.
+ */
+@SuppressWarnings("serial")
+public class LoadTestUI extends UI {
+
+    static final String LAYOUTS_PROPERTY = "loadtest.layouts";
+    static final String RPC_RATE_PROPERTY = "loadtest.rpcPerSecond";
+
+    @Override
+    protected void init(VaadinRequest request) {
+        int rpcRate = Integer.getInteger(RPC_RATE_PROPERTY, 1000);
+        ResizeRpcLimiter.get(getSession()).setRateLimit(rpcRate, rpcRate);
+
+        AbsoluteLayout layout = new AbsoluteLayout();
+        layout.setSizeFull();
+        int layouts = Integer.getInteger(LAYOUTS_PROPERTY, 20);
+        for (int i = 0; i < layouts; i++) {
+            ResizableCssLayout resizable = new ResizableCssLayout(new Label(
+                    "Layout " + i));
+            resizable.setWidth(200, Unit.PIXELS);
+            resizable.setHeight(200, Unit.PIXELS);
+            resizable.setResizable(true);
+            resizable.setAutoAcceptResize(i % 2 == 0);
+            layout.addComponent(resizable, "top:" + (100 + i * 10)
+                    + "px;left:" + (100 + i * 10) + "px");
+        }
+        setContent(layout);
+    }
+}
@@ -0,0 +1,14 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import com.vaadin.server.UIClassSelectionEvent;
+import com.vaadin.server.UIProvider;
+import com.vaadin.ui.UI;
+
+@SuppressWarnings("serial")
+public class LoadTestUIProviderImpl extends UIProvider {
+
+    @Override
+    public Class<? extends UI> getUIClass(UIClassSelectionEvent event) {
+        return LoadTestUI.class;
+    }
+}
@@ -1,5 +1,203 @@
 package com.vaadin.pekka.resizablecsslayout;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent;
+import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutServerRpc;
+import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.server.ServerRpcManager.RpcInvocationException;
+import com.vaadin.ui.AbsoluteLayout;
+import com.vaadin.ui.AbsoluteLayout.ComponentPosition;
+import com.vaadin.ui.Component;
+
 public class ResizableCssLayoutTest {
 
+    private ResizeTestUI ui;
+    private ResizableCssLayout layout;
+    private List<ResizeEndEvent> endEvents;
+
+    @Before
+    public void setUp() throws Exception {
+        ui = new ResizeTestUI(new ResizeTestSession());
+        layout = new ResizableCssLayout();
+        layout.setWidth("200px");
+        layout.setHeight("200px");
+        layout.setResizable(true);
+        layout.setAutoAcceptResize(false);
+        endEvents = new ArrayList<ResizeEndEvent>();
+        layout.addResizeEndListener(endEvents::add);
+        ui.setContent(layout);
+        layout.retrievePendingRpcCalls();
+    }
+
+    @Test
+    public void verdictsCompletingOutOfOrderAreRespondedInOrder()
+            throws Exception {
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<CompletableFuture<Boolean>>();
+        layout.addResizeVetoListener(event -> {
+            CompletableFuture<Boolean> verdict = new CompletableFuture<Boolean>();
+            verdicts.add(verdict);
+            return verdict;
+        });
+
+        resize(1, 220, 230);
+        resize(2, 240, 250);
+        verdicts.get(1).complete(true);
+        ui.runPendingAccessTasks();
+        assertTrue(acceptResizeCalls().isEmpty());
+
+        verdicts.get(0).complete(false);
+        ui.runPendingAccessTasks();
+        List<Object[]> calls = acceptResizeCalls();
+        assertEquals(2, calls.size());
+        assertArrayEquals(new Object[] { 1, false }, calls.get(0));
+        assertArrayEquals(new Object[] { 2, true }, calls.get(1));
+        assertEquals(250, layout.getWidth(), 0);
+        assertEquals(240, layout.getHeight(), 0);
+    }
+
+    @Test
+    public void verdictTimeoutRespondsDefaultVerdictOnce() throws Exception {
+        CompletableFuture<Boolean> verdict = new CompletableFuture<Boolean>();
+        layout.addResizeVetoListener(event -> verdict);
+        layout.setResizeVerdictTimeout(10, true);
+
+        resize(1, 220, 230);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ui.getSession().getPendingAccessQueue().isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        ui.runPendingAccessTasks();
+        List<Object[]> calls = acceptResizeCalls();
+        assertEquals(1, calls.size());
+        assertArrayEquals(new Object[] { 1, true }, calls.get(0));
+        assertEquals(230, layout.getWidth(), 0);
+
+        // the late verdict is ignored
+        verdict.complete(false);
+        ui.runPendingAccessTasks();
+        assertTrue(acceptResizeCalls().isEmpty());
+        assertEquals(230, layout.getWidth(), 0);
+    }
+
+    @Test
+    public void duplicateEndIsIgnored() throws Exception {
+        resize(1, 220, 230);
+        invoke("onResizeEnd", 1, 260, 270, 100);
+
+        assertEquals(1, endEvents.size());
+        List<Object[]> calls = acceptResizeCalls();
+        assertEquals(1, calls.size());
+        assertArrayEquals(new Object[] { 1, true }, calls.get(0));
+        assertEquals(230, layout.getWidth(), 0);
+        assertEquals(220, layout.getHeight(), 0);
+    }
+
+    @Test
+    public void endWithoutStartIsRejected() throws Exception {
+        invoke("onResizeEnd", 5, 220, 230, 100);
+
+        List<Object[]> calls = acceptResizeCalls();
+        assertEquals(1, calls.size());
+        assertArrayEquals(new Object[] { 5, false }, calls.get(0));
+        assertEquals(200, layout.getWidth(), 0);
+        assertEquals(200, layout.getHeight(), 0);
+    }
+
+    @Test
+    public void sideDragConstrainsOnlyDraggedAxis() throws Exception {
+        layout.setResizeStep(50);
+        layout.setMaxResizeHeight(100);
+
+        invoke("onResizeStart", 1, ResizeLocation.RIGHT, 215, 200);
+        invoke("onResizeEnd", 1, 215, 250, 100);
+
+        List<Object[]> calls = acceptResizeCalls();
+        assertEquals(1, calls.size());
+        assertArrayEquals(new Object[] { 1, true }, calls.get(0));
+        assertEquals(250, layout.getWidth(), 0);
+        assertEquals(215, layout.getHeight(), 0);
+    }
+
+    @Test
+    public void sizeOutsideOfConstraintsIsRejected() throws Exception {
+        layout.setResizeStep(50);
+
+        resize(1, 250, 260);
+
+        // the listeners get the constrained size
+        assertEquals(1, endEvents.size());
+        assertEquals(250, endEvents.get(0).getHeight());
+        assertEquals(250, endEvents.get(0).getWidth());
+        List<Object[]> calls = acceptResizeCalls();
+        assertEquals(1, calls.size());
+        assertArrayEquals(new Object[] { 1, false }, calls.get(0));
+        assertEquals(200, layout.getWidth(), 0);
+        assertEquals(200, layout.getHeight(), 0);
+    }
+
+    @Test
+    public void overriddenMoveHooksAreCalled() throws Exception {
+        List<Integer> leftDeltas = new ArrayList<Integer>();
+        layout = new ResizableCssLayout() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected void moveLeft(int delta, AbsoluteLayout absoluteLayout,
+                    Component positionHolder) {
+                leftDeltas.add(delta);
+                super.moveLeft(delta, absoluteLayout, positionHolder);
+            }
+        };
+        layout.setWidth("200px");
+        layout.setHeight("200px");
+        layout.setResizable(true);
+        AbsoluteLayout absoluteLayout = new AbsoluteLayout();
+        absoluteLayout.addComponent(layout, "left: 100px; top: 100px;");
+        ui.setContent(absoluteLayout);
+
+        invoke("onResizeStart", 1, ResizeLocation.TOP_LEFT, 200, 200);
+        invoke("onResizeEnd", 1, 230, 250, 100);
+
+        assertEquals(Arrays.asList(-50), leftDeltas);
+        ComponentPosition position = absoluteLayout.getPosition(layout);
+        assertEquals(50, position.getLeftValue(), 0);
+        assertEquals(70, position.getTopValue(), 0);
+        assertEquals(250, layout.getWidth(), 0);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void internalAcceptWithoutResizeDoesNothing() {
+        layout.internalAccept();
+
+        assertEquals(200, layout.getWidth(), 0);
+    }
+
+    private void resize(int resizeId, int height, int width)
+            throws RpcInvocationException {
+        invoke("onResizeStart", resizeId, ResizeLocation.BOTTOM_RIGHT, 200,
+                200);
+        invoke("onResizeEnd", resizeId, height, width, 100);
+    }
+
+    private void invoke(String method, Object... parameters)
+            throws RpcInvocationException {
+        ui.invoke(layout, ResizableCssLayoutServerRpc.class, method,
+                parameters);
+    }
+
+    private List<Object[]> acceptResizeCalls() {
+        return ui.retrieveClientCalls(layout, "acceptResize");
+    }
 }
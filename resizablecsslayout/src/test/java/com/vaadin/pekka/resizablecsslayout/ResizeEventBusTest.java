@@ -0,0 +1,117 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeCancelEvent;
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent;
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeProgressEvent;
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeStartEvent;
+import com.vaadin.pekka.resizablecsslayout.ResizeEventBus.ResizeBatchEvent;
+import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutServerRpc;
+import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.server.ServerRpcManager.RpcInvocationException;
+import com.vaadin.ui.CssLayout;
+
+public class ResizeEventBusTest {
+
+    private ResizeTestUI ui;
+    private ResizableCssLayout first;
+    private ResizableCssLayout second;
+    private List<ResizeBatchEvent> batches;
+
+    @Before
+    public void setUp() throws Exception {
+        ui = new ResizeTestUI(new ResizeTestSession());
+        first = createLayout();
+        second = createLayout();
+        ui.setContent(new CssLayout(first, second));
+        batches = new ArrayList<ResizeBatchEvent>();
+        ui.writeResponse();
+    }
+
+    @Test
+    public void eventsOfRequestAreDeliveredAsOneBatch() throws Exception {
+        ResizeEventBus.get(ui).addResizeBatchListener(batches::add);
+
+        invoke(first, "onResizeStart", 1, ResizeLocation.RIGHT, 200, 200);
+        invoke(second, "onResizeStart", 1, ResizeLocation.BOTTOM, 200, 200);
+        invoke(first, "onResizeProgress", 1, 200, 210);
+        invoke(second, "onResizeCancel", 1);
+        invoke(first, "onResizeEnd", 1, 200, 220, 100);
+        assertTrue(batches.isEmpty());
+
+        ui.writeResponse();
+        assertEquals(1, batches.size());
+        ResizeBatchEvent batch = batches.get(0);
+        assertSame(ui, batch.getComponent());
+        assertEquals(Arrays.asList(first, second),
+                new ArrayList<ResizableCssLayout>(batch.getLayouts()));
+        assertEquals(5, batch.getEvents().size());
+        assertEvent(ResizeStartEvent.class, first, batch, 0);
+        assertEvent(ResizeStartEvent.class, second, batch, 1);
+        assertEvent(ResizeProgressEvent.class, first, batch, 2);
+        assertEvent(ResizeCancelEvent.class, second, batch, 3);
+        assertEvent(ResizeEndEvent.class, first, batch, 4);
+    }
+
+    @Test
+    public void eachRequestGetsOwnBatch() throws Exception {
+        ResizeEventBus.get(ui).addResizeBatchListener(batches::add);
+
+        invoke(first, "onResizeStart", 1, ResizeLocation.RIGHT, 200, 200);
+        ui.writeResponse();
+        ui.writeResponse();
+        invoke(first, "onResizeEnd", 1, 200, 220, 100);
+        ui.writeResponse();
+
+        assertEquals(2, batches.size());
+        assertEvent(ResizeStartEvent.class, first, batches.get(0), 0);
+        assertEquals(1, batches.get(1).getEvents().size());
+        assertEvent(ResizeEndEvent.class, first, batches.get(1), 0);
+    }
+
+    @Test
+    public void eventsAreNotCollectedWithoutListeners() throws Exception {
+        ResizeEventBus eventBus = ResizeEventBus.get(ui);
+        assertSame(eventBus, ResizeEventBus.get(ui));
+
+        invoke(first, "onResizeStart", 1, ResizeLocation.RIGHT, 200, 200);
+        eventBus.addResizeBatchListener(batches::add);
+        ui.writeResponse();
+        assertTrue(batches.isEmpty());
+
+        invoke(first, "onResizeEnd", 1, 200, 220, 100);
+        ui.writeResponse();
+        assertEquals(1, batches.size());
+        assertEvent(ResizeEndEvent.class, first, batches.get(0), 0);
+    }
+
+    private static ResizableCssLayout createLayout() {
+        ResizableCssLayout layout = new ResizableCssLayout();
+        layout.setWidth("200px");
+        layout.setHeight("200px");
+        layout.setResizable(true);
+        return layout;
+    }
+
+    private void invoke(ResizableCssLayout layout, String method,
+            Object... parameters) throws RpcInvocationException {
+        ui.invoke(layout, ResizableCssLayoutServerRpc.class, method,
+                parameters);
+    }
+
+    private static void assertEvent(Class<?> type, ResizableCssLayout source,
+            ResizeBatchEvent batch, int index) {
+        assertSame(type, batch.getEvents().get(index).getClass());
+        assertSame(source, batch.getEvents().get(index).getComponent());
+    }
+}
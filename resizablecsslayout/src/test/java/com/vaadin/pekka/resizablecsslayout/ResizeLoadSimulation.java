@@ -0,0 +1,307 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.jetty.server.Server;
+
+import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutServerRpc;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Load test for the resize RPCs. Starts {@link TServer} with
+ * {@link LoadTestUI} and simulates clients that each open a UI and resize its
+ * layouts by sending the same UIDL requests as the browser would. Reports the
+ * round trip latency percentiles of the resize requests and the server heap
+ * used per session.
+ * <p>
+ * Configured with system properties: <code>loadtest.clients</code> (default
+ * 50), <code>loadtest.resizes</code> per client (default 200),
+ * <code>loadtest.thinkTime</code> in milliseconds between the resizes of a
+ * client (default 0), <code>loadtest.port</code> (default 9997) and the
+ * {@link LoadTestUI} properties.
+ */
+public class ResizeLoadSimulation {
+
+    private static final String RPC_INTERFACE = ResizableCssLayoutServerRpc.class
+            .getName();
+    private static final String LAYOUT_TYPE = ResizableCssLayout.class
+            .getName();
+    private static final String RESPONSE_PREFIX = "for(;;);";
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 50);
+        int resizes = Integer.getInteger("loadtest.resizes", 200);
+        int thinkTime = Integer.getInteger("loadtest.thinkTime", 0);
+        int port = Integer.getInteger("loadtest.port", 9997);
+        String url = "http://localhost:" + port + "/";
+
+        Server server = TServer.startServer(port,
+                LoadTestUIProviderImpl.class);
+        try {
+            long baselineHeap = usedHeapAfterGc();
+
+            List<SimulatedClient> simulatedClients = new ArrayList<SimulatedClient>();
+            for (int i = 0; i < clients; i++) {
+                SimulatedClient client = new SimulatedClient(url, i);
+                client.open();
+                simulatedClients.add(client);
+            }
+            long sessionHeap = (usedHeapAfterGc() - baselineHeap) / clients;
+
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+            long start = System.nanoTime();
+            for (SimulatedClient client : simulatedClients) {
+                results.add(executor.submit(() -> client.resize(resizes,
+                        thinkTime)));
+            }
+            long[] latencies = new long[0];
+            for (Future<long[]> result : results) {
+                long[] clientLatencies = result.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies,
+                        offset + clientLatencies.length);
+                System.arraycopy(clientLatencies, 0, latencies, offset,
+                        clientLatencies.length);
+            }
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+            long loadedSessionHeap = (usedHeapAfterGc() - baselineHeap)
+                    / clients;
+
+            Arrays.sort(latencies);
+            System.out.println("Clients:                " + clients);
+            System.out.println("Layouts per UI:         "
+                    + Integer.getInteger(LoadTestUI.LAYOUTS_PROPERTY, 20));
+            System.out.println("Resize requests:        " + latencies.length);
+            System.out.printf("Throughput:             %.1f requests/s%n",
+                    latencies.length / (elapsed / 1e9));
+            System.out.printf("Round trip p50:         %.2f ms%n",
+                    percentile(latencies, 50) / 1e6);
+            System.out.printf("Round trip p99:         %.2f ms%n",
+                    percentile(latencies, 99) / 1e6);
+            System.out.printf("Round trip max:         %.2f ms%n",
+                    latencies[latencies.length - 1] / 1e6);
+            System.out.println("Heap per session:       " + sessionHeap / 1024
+                    + " KiB after init, " + loadedSessionHeap / 1024
+                    + " KiB after load");
+            System.out.println("Dropped resize calls:   "
+                    + ResizeRpcLimiter.getTotalDroppedCalls());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * A browser with one UI open, sending the resize RPCs of the UI's
+     * layouts.
+     */
+    private static class SimulatedClient {
+
+        private final String url;
+        private final Random random;
+        private String sessionCookie;
+        private int uiId;
+        private String csrfToken;
+        private int syncId;
+        private int clientId;
+        private int resizeId;
+        private String[] layoutIds;
+        private int[] sizes;
+
+        SimulatedClient(String url, int seed) {
+            this.url = url;
+            random = new Random(seed);
+        }
+
+        /**
+         * Loads the page and initializes the UI, like the bootstrap does.
+         */
+        void open() throws IOException {
+            get(url);
+            JsonObject init = Json.parse(post(url
+                    + "?v-browserDetails=1&theme=demo&v-appId=ROOT"
+                    + "&v-sh=900&v-sw=1440&v-cw=1440&v-ch=900&v-curdate=0"
+                    + "&v-tzo=0&v-dstd=0&v-rtzo=0&v-dston=false&v-vw=1440"
+                    + "&v-vh=900&v-loc=" + url + "&v-wn=ROOT-0", ""));
+            uiId = (int) init.getNumber("v-uiId");
+            JsonObject uidl = Json.parse(init.getString("uidl"));
+            csrfToken = uidl.getString("Vaadin-Security-Key");
+            syncId = (int) uidl.getNumber("syncId");
+
+            String layoutTypeId = String.valueOf((int) uidl.getObject(
+                    "typeMappings").getNumber(LAYOUT_TYPE));
+            JsonObject types = uidl.getObject("types");
+            List<String> ids = new ArrayList<String>();
+            for (String connectorId : types.keys()) {
+                if (layoutTypeId.equals(types.getString(connectorId))) {
+                    ids.add(connectorId);
+                }
+            }
+            layoutIds = ids.toArray(new String[ids.size()]);
+            sizes = new int[layoutIds.length];
+            Arrays.fill(sizes, 200);
+        }
+
+        /**
+         * Resizes random layouts from the top left corner. Every other resize
+         * sends the start and the end in one request, like a short drag, and
+         * the others in separate requests, like a long drag.
+         *
+         * @return the round trip times of the requests in nanoseconds
+         */
+        long[] resize(int resizes, int thinkTime) throws Exception {
+            List<Long> latencies = new ArrayList<Long>();
+            for (int i = 0; i < resizes; i++) {
+                int layout = random.nextInt(layoutIds.length);
+                int size = sizes[layout];
+                int newSize = size == 200 ? 220 : 200;
+                int id = ++resizeId;
+                JsonArray start = invocation(layoutIds[layout],
+                        "onResizeStart", id, "TOP_LEFT", size, size);
+                JsonArray end = invocation(layoutIds[layout], "onResizeEnd",
+                        id, newSize, newSize, 100);
+                if (i % 2 == 0) {
+                    latencies.add(send(start, end));
+                } else {
+                    latencies.add(send(start));
+                    latencies.add(send(end));
+                }
+                sizes[layout] = newSize;
+                if (thinkTime > 0) {
+                    Thread.sleep(thinkTime);
+                }
+            }
+            long[] result = new long[latencies.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = latencies.get(i);
+            }
+            return result;
+        }
+
+        private static JsonArray invocation(String connectorId,
+                String method, Object... parameters) {
+            JsonArray invocation = Json.createArray();
+            invocation.set(0, connectorId);
+            invocation.set(1, RPC_INTERFACE);
+            invocation.set(2, method);
+            JsonArray params = Json.createArray();
+            for (Object parameter : parameters) {
+                if (parameter instanceof Number) {
+                    params.set(params.length(),
+                            ((Number) parameter).doubleValue());
+                } else {
+                    params.set(params.length(), String.valueOf(parameter));
+                }
+            }
+            invocation.set(3, params);
+            return invocation;
+        }
+
+        private long send(JsonArray... invocations) throws IOException {
+            JsonObject payload = Json.createObject();
+            payload.put("csrfToken", csrfToken);
+            JsonArray rpc = Json.createArray();
+            for (JsonArray invocation : invocations) {
+                rpc.set(rpc.length(), invocation);
+            }
+            payload.put("rpc", rpc);
+            payload.put("syncId", syncId);
+            payload.put("clientId", clientId++);
+
+            long start = System.nanoTime();
+            String response = post(url + "UIDL/?v-uiId=" + uiId,
+                    payload.toJson());
+            long latency = System.nanoTime() - start;
+
+            if (!response.startsWith(RESPONSE_PREFIX)) {
+                throw new IOException("Unexpected response: " + response);
+            }
+            JsonArray messages = Json.instance().parse(response
+                    .substring(RESPONSE_PREFIX.length()));
+            JsonObject message = messages.getObject(0);
+            if (message.hasKey("syncId")) {
+                syncId = (int) message.getNumber("syncId");
+            }
+            return latency;
+        }
+
+        private String get(String address) throws IOException {
+            HttpURLConnection connection = open(address);
+            return read(connection);
+        }
+
+        private String post(String address, String body) throws IOException {
+            HttpURLConnection connection = open(address);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type",
+                    "application/json; charset=UTF-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+            return read(connection);
+        }
+
+        private HttpURLConnection open(String address) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) new URL(address)
+                    .openConnection();
+            if (sessionCookie != null) {
+                connection.setRequestProperty("Cookie", sessionCookie);
+            }
+            return connection;
+        }
+
+        private String read(HttpURLConnection connection) throws IOException {
+            if (connection.getResponseCode() != 200) {
+                throw new IOException("HTTP " + connection.getResponseCode()
+                        + " from " + connection.getURL());
+            }
+            String setCookie = connection.getHeaderField("Set-Cookie");
+            if (setCookie != null) {
+                sessionCookie = setCookie.split(";", 2)[0];
+            }
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout.ResizeEndEvent;
+import com.vaadin.pekka.resizablecsslayout.ResizeRpcLimiter.Call;
+import com.vaadin.pekka.resizablecsslayout.client.ResizableCssLayoutServerRpc;
+import com.vaadin.pekka.resizablecsslayout.client.ResizeLocation;
+import com.vaadin.server.ServerRpcManager.RpcInvocationException;
+
+public class ResizeRpcLimiterTest {
+
+    private ResizeRpcLimiter limiter;
+
+    @Before
+    public void setUp() {
+        limiter = new ResizeRpcLimiter();
+    }
+
+    @Test
+    public void sizesOutOfBoundsAreDropped() {
+        limiter.setMaxSize(1000);
+        long totalDropped = ResizeRpcLimiter.getTotalDroppedCalls();
+
+        assertTrue(limiter.tryAcquire(Call.END, 1000, 0));
+        assertFalse(limiter.tryAcquire(Call.END, -1, 10));
+        assertFalse(limiter.tryAcquire(Call.START, 10, 1001));
+        assertFalse(limiter.tryAcquire(Call.PROGRESS, 1001, 10));
+        assertEquals(3, limiter.getDroppedCalls());
+        assertTrue(ResizeRpcLimiter.getTotalDroppedCalls() >= totalDropped
+                + 3);
+    }
+
+    @Test
+    public void callsOverCapacityAreDropped() {
+        limiter.setRateLimit(3, 1);
+
+        assertTrue(limiter.tryAcquire(Call.END, 10, 10));
+        assertTrue(limiter.tryAcquire(Call.END, 10, 10));
+        assertTrue(limiter.tryAcquire(Call.END, 10, 10));
+        assertFalse(limiter.tryAcquire(Call.END, 10, 10));
+        assertEquals(1, limiter.getDroppedCalls());
+    }
+
+    @Test
+    public void eachCallKindHasOwnBucket() {
+        limiter.setRateLimit(1, 1);
+        assertTrue(limiter.tryAcquire(Call.PROGRESS, 10, 10));
+        assertFalse(limiter.tryAcquire(Call.PROGRESS, 10, 10));
+
+        assertTrue(limiter.tryAcquire(Call.START, 10, 10));
+        assertTrue(limiter.tryAcquire(Call.END, 10, 10));
+        assertTrue(limiter.tryAcquire(Call.CANCEL, 0, 0));
+        assertFalse(limiter.tryAcquire(Call.END, 10, 10));
+        assertEquals(2, limiter.getDroppedCalls());
+    }
+
+    @Test
+    public void tokensAreRefilled() throws InterruptedException {
+        limiter.setRateLimit(1, 1000);
+        assertTrue(limiter.tryAcquire(Call.END, 10, 10));
+
+        Thread.sleep(20);
+        assertTrue(limiter.tryAcquire(Call.END, 10, 10));
+    }
+
+    @Test
+    public void limiterIsKeptInSession() throws Exception {
+        ResizeTestSession session = new ResizeTestSession();
+
+        assertSame(ResizeRpcLimiter.get(session),
+                ResizeRpcLimiter.get(session));
+    }
+
+    @Test
+    public void endFloodIsRejected() throws Exception {
+        ResizeTestUI ui = new ResizeTestUI(new ResizeTestSession());
+        ResizableCssLayout layout = createLayout(ui);
+        List<ResizeEndEvent> endEvents = new ArrayList<ResizeEndEvent>();
+        layout.addResizeEndListener(endEvents::add);
+        ResizeRpcLimiter limiter = ResizeRpcLimiter.get(ui.getSession());
+        limiter.setRateLimit(5, 1);
+
+        for (int i = 0; i < 1000; i++) {
+            invoke(ui, layout, "onResizeEnd", i, 220, 230, 100);
+        }
+
+        assertEquals(5, endEvents.size());
+        assertEquals(995, limiter.getDroppedCalls());
+        // the dropped ends are still rejected, not left waiting
+        List<Object[]> calls = ui.retrieveClientCalls(layout, "acceptResize");
+        assertEquals(1000, calls.size());
+        for (Object[] call : calls) {
+            assertEquals(Boolean.FALSE, call[1]);
+        }
+        assertEquals(200, layout.getWidth(), 0);
+    }
+
+    @Test
+    public void droppedAutoAcceptedEndRestoresClientSize() throws Exception {
+        ResizeTestUI ui = new ResizeTestUI(new ResizeTestSession());
+        ResizableCssLayout layout = createLayout(ui);
+        layout.setAutoAcceptResize(true);
+        layout.retrievePendingRpcCalls();
+
+        invoke(ui, layout, "onResizeStart", 1, ResizeLocation.BOTTOM_RIGHT,
+                200, 200);
+        invoke(ui, layout, "onResizeEnd", 1, 200, 70000, 100);
+
+        assertEquals(1, ui.retrieveClientCalls(layout, "restoreSize").size());
+        assertEquals(200, layout.getWidth(), 0);
+    }
+
+    @Test
+    public void endIsNotDroppedAfterProgressBurst() throws Exception {
+        ResizeTestUI ui = new ResizeTestUI(new ResizeTestSession());
+        ResizableCssLayout layout = createLayout(ui);
+        ResizeRpcLimiter.get(ui.getSession()).setRateLimit(1, 1);
+
+        invoke(ui, layout, "onResizeStart", 1, ResizeLocation.BOTTOM_RIGHT,
+                200, 200);
+        for (int i = 0; i < 5; i++) {
+            invoke(ui, layout, "onResizeProgress", 1, 210 + i, 210 + i);
+        }
+        invoke(ui, layout, "onResizeEnd", 1, 220, 230, 100);
+
+        List<Object[]> calls = ui.retrieveClientCalls(layout, "acceptResize");
+        assertEquals(1, calls.size());
+        assertArrayEquals(new Object[] { 1, true }, calls.get(0));
+        assertEquals(230, layout.getWidth(), 0);
+    }
+
+    private static ResizableCssLayout createLayout(ResizeTestUI ui) {
+        ResizableCssLayout layout = new ResizableCssLayout();
+        layout.setWidth("200px");
+        layout.setHeight("200px");
+        layout.setResizable(true);
+        layout.setAutoAcceptResize(false);
+        ui.setContent(layout);
+        layout.retrievePendingRpcCalls();
+        return layout;
+    }
+
+    private static void invoke(ResizeTestUI ui, ResizableCssLayout layout,
+            String method, Object... parameters)
+            throws RpcInvocationException {
+        ui.invoke(layout, ResizableCssLayoutServerRpc.class, method,
+                parameters);
+    }
+}
@@ -0,0 +1,59 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.DefaultDeploymentConfiguration;
+import com.vaadin.server.ServiceException;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+
+/**
+ * Session for the unit tests, with a service that is not initialized. The
+ * session is locked by the thread that creates it for its whole lifetime,
+ * like during a request, so the tasks given to {@link #access(Runnable)}
+ * from any thread are only run by {@link #runPendingAccessTasks()}.
+ */
+@SuppressWarnings("serial")
+class ResizeTestSession extends VaadinSession {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int nextConnectorId;
+
+    ResizeTestSession() throws ServiceException {
+        super(createService());
+        lock.lock();
+    }
+
+    private static VaadinServletService createService()
+            throws ServiceException {
+        Properties properties = new Properties();
+        properties.setProperty("productionMode", "true");
+        return new VaadinServletService(new VaadinServlet(),
+                new DefaultDeploymentConfiguration(ResizeTestUI.class,
+                        properties));
+    }
+
+    @Override
+    public Lock getLockInstance() {
+        return lock;
+    }
+
+    @Override
+    @Deprecated
+    public String createConnectorId(ClientConnector connector) {
+        // normally generated by the initialized service
+        return String.valueOf(nextConnectorId++);
+    }
+
+    /**
+     * Runs the tasks queued with {@link #access(Runnable)}.
+     */
+    void runPendingAccessTasks() {
+        getService().runPendingAccessTasks(this);
+    }
+}
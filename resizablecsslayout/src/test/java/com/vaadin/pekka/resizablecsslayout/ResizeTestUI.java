@@ -0,0 +1,83 @@
+package com.vaadin.pekka.resizablecsslayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.ClientMethodInvocation;
+import com.vaadin.server.ServerRpcManager;
+import com.vaadin.server.ServerRpcManager.RpcInvocationException;
+import com.vaadin.server.ServerRpcMethodInvocation;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.shared.communication.ServerRpc;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.UI;
+
+/**
+ * UI attached to a {@link ResizeTestSession}, with methods for calling the
+ * server RPC of the connectors like a request from the client would, and
+ * for reading the client RPC calls they respond with.
+ */
+@SuppressWarnings("serial")
+class ResizeTestUI extends UI {
+
+    ResizeTestUI(ResizeTestSession session) {
+        setSession(session);
+    }
+
+    @Override
+    protected void init(VaadinRequest request) {
+        // NOOP, content is set by the tests
+    }
+
+    /**
+     * Invokes the server RPC method of the connector through the
+     * {@link ServerRpcManager}, with the parameters already decoded.
+     */
+    void invoke(ClientConnector connector,
+            Class<? extends ServerRpc> rpcInterface, String method,
+            Object... parameters) throws RpcInvocationException {
+        ServerRpcMethodInvocation invocation = new ServerRpcMethodInvocation(
+                connector.getConnectorId(), rpcInterface, method,
+                parameters.length);
+        invocation.setParameters(parameters);
+        ServerRpcManager.applyInvocation(connector, invocation);
+    }
+
+    /**
+     * Returns and clears the client RPC calls of the connector with the
+     * given method name.
+     */
+    List<Object[]> retrieveClientCalls(ClientConnector connector,
+            String method) {
+        List<Object[]> calls = new ArrayList<Object[]>();
+        for (ClientMethodInvocation call : connector
+                .retrievePendingRpcCalls()) {
+            if (call.getMethodName().equals(method)) {
+                calls.add(call.getParameters());
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Calls {@link ClientConnector#beforeClientResponse(boolean)} for the
+     * dirty connectors and marks them clean, like writing a response to the
+     * client would.
+     */
+    void writeResponse() {
+        ConnectorTracker tracker = getConnectorTracker();
+        for (ClientConnector connector : new ArrayList<ClientConnector>(
+                tracker.getDirtyVisibleConnectors())) {
+            connector.beforeClientResponse(false);
+        }
+        tracker.markAllConnectorsClean();
+    }
+
+    /**
+     * Runs the tasks given to {@link #access(Runnable)}.
+     */
+    void runPendingAccessTasks() {
+        ((ResizeTestSession) getSession()).runPendingAccessTasks();
+    }
+}
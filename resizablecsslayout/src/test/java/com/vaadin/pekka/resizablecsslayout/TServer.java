@@ -8,6 +8,7 @@ import org.eclipse.jetty.server.nio.SelectChannelConnector;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.webapp.WebAppContext;
 
+import com.vaadin.server.UIProvider;
 import com.vaadin.server.VaadinServlet;
 
 public class TServer {
@@ -24,6 +25,11 @@ public class TServer {
     }
 
     public static Server startServer(int port) throws Exception {
+        return startServer(port, TestUIProviderImpl.class);
+    }
+
+    public static Server startServer(int port,
+            Class<? extends UIProvider> uiProvider) throws Exception {
         Server server = new Server();
 
         final Connector connector = new SelectChannelConnector();
@@ -37,7 +43,7 @@ public class TServer {
         servletHolder.setInitParameter("widgetset",
                 "com.vaadin.pekka.resizablecsslayout.Widgetset");
         servletHolder.setInitParameter("UIProvider",
-                TestUIProviderImpl.class.getName());
+                uiProvider.getName());
 
         File file = new File("target");
         context.setWar(file.getPath());
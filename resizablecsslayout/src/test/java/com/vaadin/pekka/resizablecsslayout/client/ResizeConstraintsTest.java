@@ -0,0 +1,69 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ResizeConstraintsTest {
+
+    @Test
+    public void sizeWithoutConstraintsIsKept() {
+        assertEquals(123, ResizeConstraints.constrain(123, 0, -1, 0));
+        assertEquals(123, ResizeConstraints.constrain(123, -5, -1, 1));
+    }
+
+    @Test
+    public void sizeIsLimitedToMinAndMax() {
+        assertEquals(50, ResizeConstraints.constrain(20, 50, 100, 0));
+        assertEquals(100, ResizeConstraints.constrain(120, 50, 100, 0));
+        assertEquals(0, ResizeConstraints.constrain(20, 0, 0, 0));
+    }
+
+    @Test
+    public void sizeIsRoundedToClosestStep() {
+        assertEquals(100, ResizeConstraints.constrain(112, 0, -1, 25));
+        assertEquals(125, ResizeConstraints.constrain(113, 0, -1, 25));
+        assertEquals(0, ResizeConstraints.constrain(12, 0, -1, 25));
+    }
+
+    @Test
+    public void sizeIsSnappedToStepInsideMinAndMax() {
+        assertEquals(100, ResizeConstraints.constrain(120, 0, 110, 25));
+        assertEquals(50, ResizeConstraints.constrain(20, 30, -1, 25));
+        assertEquals(20, ResizeConstraints.constrain(15, 15, -1, 10));
+        assertEquals(100, ResizeConstraints.constrain(104, 0, 104, 10));
+    }
+
+    @Test
+    public void sizeIsLimitedWhenNoStepFitsInsideMinAndMax() {
+        assertEquals(42, ResizeConstraints.constrain(40, 42, 48, 10));
+        assertEquals(48, ResizeConstraints.constrain(60, 42, 48, 10));
+        assertEquals(45, ResizeConstraints.constrain(45, 42, 48, 10));
+    }
+
+    @Test
+    public void constrainingTwiceIsSameAsOnce() {
+        int[][] constraints = { { 0, -1, 0 }, { 15, -1, 10 },
+                { 0, 104, 10 }, { 15, 104, 10 }, { 42, 48, 10 },
+                { 30, 110, 25 }, { 80, 60, 7 }, { -5, 33, 4 } };
+        for (int[] c : constraints) {
+            for (int size = -20; size <= 200; size++) {
+                int once = ResizeConstraints.constrain(size, c[0], c[1], c[2]);
+                assertEquals(once,
+                        ResizeConstraints.constrain(once, c[0], c[1], c[2]));
+            }
+        }
+    }
+
+    @Test
+    public void minWinsOverMax() {
+        assertEquals(80, ResizeConstraints.constrain(100, 80, 60, 0));
+    }
+
+    @Test
+    public void fractionalSizeIsRoundedFirst() {
+        assertEquals(101.0, ResizeConstraints.constrain(100.6, 0, -1, 0), 0);
+        assertEquals(100.0, ResizeConstraints.constrain(112.4, 0, -1, 25),
+                0);
+    }
+}
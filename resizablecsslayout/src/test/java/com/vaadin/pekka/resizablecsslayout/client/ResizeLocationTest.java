@@ -0,0 +1,66 @@
+package com.vaadin.pekka.resizablecsslayout.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import com.vaadin.pekka.resizablecsslayout.ResizableCssLayout;
+
+public class ResizeLocationTest {
+
+    @Test
+    public void everyMaskRoundTrips() {
+        for (int mask = 0; mask <= ResizeLocation.ALL_MASK; mask++) {
+            EnumSet<ResizeLocation> resizeLocations = ResizeLocation
+                    .fromMask(mask);
+            assertEquals(Integer.bitCount(mask), resizeLocations.size());
+            assertEquals(mask, ResizeLocation.toMask(resizeLocations));
+        }
+    }
+
+    @Test
+    public void everyLocationHasOwnBit() {
+        int mask = 0;
+        for (ResizeLocation resizeLocation : ResizeLocation.values()) {
+            assertEquals(1, Integer.bitCount(resizeLocation.getMask()));
+            assertEquals(0, mask & resizeLocation.getMask());
+            assertTrue(resizeLocation.isIn(ResizeLocation.ALL_MASK));
+            assertEquals(EnumSet.of(resizeLocation),
+                    ResizeLocation.fromMask(resizeLocation.getMask()));
+            mask |= resizeLocation.getMask();
+        }
+        assertEquals(ResizeLocation.ALL_MASK, mask);
+    }
+
+    @Test
+    public void bitsOutsideOfLocationsAreIgnored() {
+        assertEquals(EnumSet.allOf(ResizeLocation.class),
+                ResizeLocation.fromMask(-1));
+        assertEquals(EnumSet.noneOf(ResizeLocation.class),
+                ResizeLocation.fromMask(~ResizeLocation.ALL_MASK));
+    }
+
+    @Test
+    public void layoutLocationsRoundTripThroughState() {
+        ResizableCssLayout layout = new ResizableCssLayout();
+        assertEquals(EnumSet.allOf(ResizeLocation.class),
+                layout.getResizeLocations());
+
+        layout.setResizeLocations(ResizeLocation.TOP, ResizeLocation.TOP,
+                ResizeLocation.BOTTOM_LEFT);
+        assertEquals(
+                EnumSet.of(ResizeLocation.TOP, ResizeLocation.BOTTOM_LEFT),
+                layout.getResizeLocations());
+
+        layout.setCornersResizable();
+        assertEquals(EnumSet.of(ResizeLocation.TOP_LEFT,
+                ResizeLocation.TOP_RIGHT, ResizeLocation.BOTTOM_LEFT,
+                ResizeLocation.BOTTOM_RIGHT), layout.getResizeLocations());
+
+        layout.setResizeLocations();
+        assertTrue(layout.getResizeLocations().isEmpty());
+    }
+}